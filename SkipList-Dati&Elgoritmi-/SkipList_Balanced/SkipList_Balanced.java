@@ -0,0 +1,310 @@
+/**
+ * SkipList_Balanced.java
+ *
+ * Deterministic 1-2-3 skip list priority queue (Munro, Papadakis and Sedgewick).
+ * Heights are not drawn at random nor taken from the key: {@code insert} promotes and
+ * {@code removeMin} demotes tower nodes so that every gap stays between 1 and 3 nodes,
+ * which bounds the height to O(log n) and the nodes visited per level to a constant,
+ * so every operation is O(log n) in the worst case.
+ *
+ * @author jacopo
+ * @version 1.0
+ */
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Main class to test the balanced SkipListPQ implementation.
+ * Reads the same input file format as {@code SkipList_Base}; alpha is read but not used.
+ */
+public class SkipList_Balanced {
+
+    /**
+     * A node of the balanced Skip List, with forward and down links as in {@code SkipList_Compact}.
+     */
+    static class MyEntry {
+        protected final int key;     // Key of the Entry
+        protected MyEntry next;      // Next Entry on the same level
+        protected MyEntry below;     // Entry below
+
+        /**
+         * @param key The integer key for this entry.
+         */
+        public MyEntry(int key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Base level node, holding the value.
+     */
+    static class ValueEntry extends MyEntry implements PriorityQueueEngine.Entry {
+        private final String value;  // Value of the Entry
+
+        /**
+         * @param key   The integer key for this entry.
+         * @param value The string value associated with the key.
+         */
+        public ValueEntry(int key, String value) {
+            super(key);
+            this.value = value;
+        }
+
+        public Integer getKey() {
+            return key;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        // @return A string in the format "key value"
+        public String toString() {
+            return key + " " + value;
+        }
+    }
+
+    /**
+     * 1-2-3 Skip List priority queue.
+     * Level 0 is the base level and, as in {@code SkipList_Base}, the top level is always empty;
+     * all levels end in one shared {@code tail} sentinel.
+     *
+     * The nodes of level l between two consecutive nodes of level l + 1 (or a head sentinel, or the tail)
+     * form a gap; they are exactly the nodes whose tower has height l + 1. Every gap holds 1, 2 or 3 nodes,
+     * and the nodes of the highest non-empty level are at most 3. Hence the first node of each level is
+     * never part of a taller tower, and the minimum always has height 1.
+     */
+    static class SkipListPQ implements PriorityQueueEngine {
+
+        private int level;             // Index of the (empty) top level
+        private int size;              // Number of elements
+        private MyEntry[] heads;       // Head sentinel of each level
+        private final MyEntry tail;    // Tail sentinel shared by all levels
+        protected int numExe;          // Execution count
+        protected double averageIt;    // Average number of traversed nodes
+        protected long numItTot;       // Total number of iterations
+
+        /**
+         * Constructs an empty Skip List with the base level and the empty top level.
+         */
+        public SkipListPQ() {
+            this.tail = new MyEntry(Integer.MAX_VALUE);
+            this.heads = new MyEntry[8];
+            heads[0] = new MyEntry(Integer.MIN_VALUE);
+            heads[0].next = tail;
+            heads[1] = new MyEntry(Integer.MIN_VALUE);
+            heads[1].next = tail;
+            heads[1].below = heads[0];
+            level = 1;
+            size = 0;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return heads[0].next == tail;
+        }
+
+        public int getInsertCount() {
+            return numExe;
+        }
+
+        public double getAverageTraversedNodes() {
+            return averageIt;
+        }
+
+        /**
+         * @return The first base level entry, or {@code null} if the list is empty.
+         */
+        public PriorityQueueEngine.Entry min() {
+            return isEmpty() ? null : (ValueEntry) heads[0].next;
+        }
+
+        /**
+         * Inserts a new key-value pair, top-down.
+         * Before going down from a node of level l + 1, the gap below it is split if it holds 3 nodes,
+         * by promoting its middle node to level l + 1; the new node then lands in a gap of at most
+         * 2 nodes and every gap stays within 3. A full top level is split into a new level.
+         * Equal keys are inserted after the existing ones, and the traversed nodes are counted
+         * as in {@code SkipList_Base.skipSearch}.
+         *
+         * @param key   The key of the element to insert.
+         * @param value The value associated with the key.
+         * @return The number of nodes traversed during the search phase of this insertion.
+         */
+        public int insert(int key, String value) {
+            MyEntry p = heads[level];
+            int numIt = 1;
+            for (int l = level - 1; l >= 0; l--) {
+                MyEntry end = gapEnd(p);
+                MyEntry first = p.below.next;
+                if (first != end && first.next != end && first.next.next != end && first.next.next.next == end) {
+                    MyEntry middle = first.next;
+                    MyEntry promoted = new MyEntry(middle.key);
+                    promoted.below = middle;
+                    promoted.next = p.next;
+                    p.next = promoted;
+                    if (l + 1 == level) {
+                        grow();
+                    }
+                    if (key >= middle.key) {
+                        p = promoted;
+                    }
+                }
+                p = p.below;
+                numIt++;
+                while (key >= p.next.key) {
+                    p = p.next;
+                    numIt++;
+                }
+            }
+
+            ValueEntry q = new ValueEntry(key, value);
+            q.next = p.next;
+            p.next = q;
+
+            size++;
+            numExe++;
+            numItTot += numIt;
+            averageIt = (double) numItTot / numExe;
+            return numIt;
+        }
+
+        /**
+         * Removes the entry with the minimum key, top-down along the first gap of every level.
+         * Before going down, a first gap of a single node takes one more: the first node of the
+         * level above is replaced by the first node of the next gap if that gap can spare it,
+         * otherwise it is demoted and the two gaps merge into one of 3 nodes.
+         * The minimum, which has height 1, then leaves a first gap of at least 1 node.
+         * An emptied top level is dropped.
+         *
+         * @return The removed entry, or {@code null} if the list was empty.
+         */
+        public PriorityQueueEngine.Entry removeMin() {
+            if (isEmpty()) {
+                return null;
+            }
+            for (int l = level - 2; l >= 0; l--) {
+                MyEntry b = heads[l + 1].next;   // Ends the first gap of level l
+                if (heads[l].next.next != b.below) {
+                    continue;
+                }
+                MyEntry end = gapEnd(b);
+                MyEntry f = b.below.next;        // First node of the next gap
+                if (f.next != end) {
+                    // Borrow: f goes up in place of b
+                    MyEntry promoted = new MyEntry(f.key);
+                    promoted.below = f;
+                    promoted.next = b.next;
+                    heads[l + 1].next = promoted;
+                } else {
+                    // Merge: b goes down and the two gaps become one of 3 nodes
+                    heads[l + 1].next = b.next;
+                    if (l + 1 == level - 1 && b.next == tail) {
+                        heads[level] = null;
+                        level--;
+                    }
+                }
+            }
+            ValueEntry minEntry = (ValueEntry) heads[0].next;
+            heads[0].next = minEntry.next;
+            size--;
+            return minEntry;
+        }
+
+        /**
+         * Prints the elements at the base level in ascending order of keys,
+         * with the height of each node's tower, in the format of {@code SkipList_Base}.
+         * A cursor on every upper level points to its next node, which belongs to the
+         * current tower if it stands on the tower's node of the level below.
+         */
+        public void print() {
+            if (!isEmpty()) {
+                StringBuilder sb = new StringBuilder();
+                MyEntry[] cursor = new MyEntry[level];
+                for (int l = 1; l < level; l++) {
+                    cursor[l] = heads[l].next;
+                }
+                for (MyEntry e = heads[0].next; e != tail; e = e.next) {
+                    MyEntry t = e;
+                    int h = 1;
+                    while (h < level && cursor[h].below == t) {
+                        t = cursor[h];
+                        cursor[h] = t.next;
+                        h++;
+                    }
+                    if (e != heads[0].next) {
+                        sb.append(", ");
+                    }
+                    sb.append(e).append(' ').append(h);
+                }
+                System.out.println(sb);
+            } else {
+                System.out.println("Empty list, try again");
+            }
+        }
+
+        // The node of the level below p where the gap below p ends: the tower node of p's successor, or the tail.
+        private MyEntry gapEnd(MyEntry p) {
+            return p.next == tail ? tail : p.next.below;
+        }
+
+        // Adds an empty level on top, the top level having just received its first node.
+        private void grow() {
+            if (level + 2 > heads.length) {
+                heads = Arrays.copyOf(heads, heads.length * 2);
+            }
+            MyEntry head = new MyEntry(Integer.MIN_VALUE);
+            head.next = tail;
+            head.below = heads[level];
+            heads[++level] = head;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.out.println("Usage: java TestProgram <file_path>");
+            return;
+        }
+
+        try (BufferedReader br = new BufferedReader(new FileReader(args[0]))) {
+            String[] firstLine = br.readLine().split(" ");
+            int N = Integer.parseInt(firstLine[0]);
+            double alpha = Double.parseDouble(firstLine[1]);
+            System.out.println(N + " " + alpha);
+
+            SkipListPQ skipList = new SkipListPQ();
+
+            for (int i = 0; i < N; i++) {
+                String[] line = br.readLine().split(" ");
+                int operation = Integer.parseInt(line[0]);
+
+                switch (operation) {
+                    case 0:
+                        PriorityQueueEngine.Entry minEntry = skipList.min();
+                        if (minEntry != null) System.out.println(minEntry);
+                        break;
+                    case 1:
+                        skipList.removeMin();
+                        break;
+                    case 2:
+                        skipList.insert(Integer.parseInt(line[1]), line[2]);
+                        break;
+                    case 3:
+                        skipList.print();
+                        break;
+                    default:
+                        System.out.println("Invalid operation code");
+                        return;
+                }
+            }
+            System.out.println(alpha + " " + skipList.size() + " " + skipList.numExe + " " + skipList.averageIt);
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,621 @@
+/**
+ * SkipList_Benchmark.java
+ *
+ * Replays the trace files read by {@code SkipList_Base} and {@code SkipList_Template}
+ * against every {@code SkipList_Engine} engine and against the JDK collections
+ * {@code PriorityQueue}, {@code TreeMap} and {@code ConcurrentSkipListMap},
+ * and reports throughput, latency percentiles, heap per entry and allocation rate.
+ *
+ * @author jacopo
+ * @version 1.0
+ */
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A trace parsed into primitive arrays, so that parsing is not part of the measurement.
+ * Repeated values share a single String instance.
+ */
+class Trace {
+    public static final byte MIN = 0;
+    public static final byte REMOVE_MIN = 1;
+    public static final byte INSERT = 2;
+    public static final byte PRINT = 3;
+
+    protected final double alpha;
+    protected final byte[] ops;
+    protected final int[] keys;
+    protected final String[] values;
+
+    private Trace(double alpha, byte[] ops, int[] keys, String[] values) {
+        this.alpha = alpha;
+        this.ops = ops;
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * Reads a trace file in the "N alpha" + opcode format.
+     * @param path trace file
+     * @return the parsed trace
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public static Trace load(String path) throws IOException {
+        try (BufferedReader br = new BufferedReader(new FileReader(path), 1 << 16)) {
+            String[] firstLine = br.readLine().split(" ");
+            int n = Integer.parseInt(firstLine[0]);
+            double alpha = Double.parseDouble(firstLine[1]);
+            byte[] ops = new byte[n];
+            int[] keys = new int[n];
+            String[] values = new String[n];
+            Map<String, String> pool = new HashMap<>();
+
+            for (int i = 0; i < n; i++) {
+                String line = br.readLine();
+                if (line == null) {
+                    throw new IOException("Trace ends after " + i + " of " + n + " operations");
+                }
+                String[] fields = line.split(" ");
+                int operation = Integer.parseInt(fields[0]);
+                if (operation < MIN || operation > PRINT) {
+                    throw new IOException("Invalid operation code at line " + (i + 2));
+                }
+                ops[i] = (byte) operation;
+                if (operation == INSERT) {
+                    keys[i] = Integer.parseInt(fields[1]);
+                    values[i] = pool.computeIfAbsent(fields[2], v -> v);
+                }
+            }
+            return new Trace(alpha, ops, keys, values);
+        }
+    }
+
+    /** @return number of operations */
+    public int length() {
+        return ops.length;
+    }
+}
+
+/**
+ * Common front for every structure under test.
+ * min and removeMin return the key they observed, so results cannot be optimized away.
+ */
+interface QueueAdapter extends AutoCloseable {
+    void insert(int key, String value);
+
+    int min();
+
+    int removeMin();
+
+    boolean isEmpty();
+
+    int size();
+
+    /** @return true if the entries are stored outside the Java heap, which then cannot measure them */
+    default boolean isOffHeap() {
+        return false;
+    }
+
+    /** Releases the resources of the structure, such as the file of a mapped engine. */
+    default void close() {
+    }
+}
+
+/**
+ * Any {@link PriorityQueueEngine} built by {@code SkipList_Engine.create}.
+ * The queue is known to be non-empty when min and removeMin are called.
+ */
+class EngineAdapter implements QueueAdapter {
+    private final PriorityQueueEngine pq;
+
+    public EngineAdapter(PriorityQueueEngine pq) {
+        this.pq = pq;
+    }
+
+    public void insert(int key, String value) {
+        pq.insert(key, value);
+    }
+
+    public int min() {
+        return pq.min().getKey();
+    }
+
+    public int removeMin() {
+        return pq.removeMin().getKey();
+    }
+
+    public boolean isEmpty() {
+        return pq.isEmpty();
+    }
+
+    public int size() {
+        return pq.size();
+    }
+
+    public boolean isOffHeap() {
+        return pq instanceof SkipList_Mapped.SkipListPQ;
+    }
+
+    public void close() {
+        if (pq instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) pq).close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Cannot close the engine: " + e.getMessage(), e);
+            }
+        }
+    }
+}
+
+/** {@code java.util.PriorityQueue} (binary heap) of key-value entries. */
+class PriorityQueueAdapter implements QueueAdapter {
+    private static final class Entry {
+        final int key;
+        final String value;
+
+        Entry(int key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final PriorityQueue<Entry> pq = new PriorityQueue<>((a, b) -> Integer.compare(a.key, b.key));
+
+    public void insert(int key, String value) {
+        pq.add(new Entry(key, value));
+    }
+
+    public int min() {
+        return pq.peek().key;
+    }
+
+    public int removeMin() {
+        return pq.poll().key;
+    }
+
+    public boolean isEmpty() {
+        return pq.isEmpty();
+    }
+
+    public int size() {
+        return pq.size();
+    }
+}
+
+/**
+ * A sorted map used as a priority queue: each key maps to the values inserted with it,
+ * in insertion order, so duplicate keys behave as in the skip lists.
+ */
+class SortedMapAdapter implements QueueAdapter {
+    private final NavigableMap<Integer, ArrayDeque<String>> map;
+    private int size;
+
+    public SortedMapAdapter(NavigableMap<Integer, ArrayDeque<String>> map) {
+        this.map = map;
+    }
+
+    public void insert(int key, String value) {
+        map.computeIfAbsent(key, k -> new ArrayDeque<>(2)).addLast(value);
+        size++;
+    }
+
+    public int min() {
+        return map.firstKey();
+    }
+
+    public int removeMin() {
+        Map.Entry<Integer, ArrayDeque<String>> first = map.firstEntry();
+        ArrayDeque<String> values = first.getValue();
+        values.pollFirst();
+        if (values.isEmpty()) {
+            map.remove(first.getKey());
+        }
+        size--;
+        return first.getKey();
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+}
+
+/**
+ * Log-linear latency histogram: 64 power-of-two ranges, each split in 16 linear buckets,
+ * so percentiles are accurate to about 6% without storing every sample.
+ */
+class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+    private final long[] counts = new long[64 * SUB];
+    private long total;
+    private long max;
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts[index(nanos)]++;
+        total++;
+        if (nanos > max) {
+            max = nanos;
+        }
+    }
+
+    private static int index(long v) {
+        if (v < SUB) {
+            return (int) v;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+        return (exp - SUB_BITS + 1) * SUB + sub;
+    }
+
+    // Upper bound of the values recorded in bucket i.
+    private static long upperBound(int i) {
+        if (i < SUB) {
+            return i;
+        }
+        int exp = i / SUB + SUB_BITS - 1;
+        long sub = i % SUB;
+        return ((SUB + sub + 1) << (exp - SUB_BITS)) - 1;
+    }
+
+    /**
+     * @param p percentile in [0, 100]
+     * @return latency in nanoseconds at or below which p percent of the samples fall
+     */
+    public long percentile(double p) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(p / 100.0 * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long getMax() {
+        return max;
+    }
+}
+
+/**
+ * Measurements of one structure on one trace.
+ */
+class BenchResult {
+    protected String engine;
+    protected long ops;
+    protected long skipped;
+    protected double opsPerSecond;
+    protected long p50, p90, p99, p999, max;
+    protected int finalSize;
+    protected double heapBytesPerEntry;
+    protected double allocatedBytesPerOp;
+    protected double allocationMBPerSecond;
+    protected double relativeThroughput;
+
+    public String toJson() {
+        return "{\"engine\":\"" + engine + "\""
+                + ",\"ops\":" + ops
+                + ",\"skippedOps\":" + skipped
+                + ",\"opsPerSecond\":" + number(opsPerSecond)
+                + ",\"latencyNanos\":{\"p50\":" + p50 + ",\"p90\":" + p90 + ",\"p99\":" + p99
+                + ",\"p999\":" + p999 + ",\"max\":" + max + "}"
+                + ",\"finalSize\":" + finalSize
+                + ",\"heapBytesPerEntry\":" + number(heapBytesPerEntry)
+                + ",\"allocatedBytesPerOp\":" + number(allocatedBytesPerOp)
+                + ",\"allocationMBPerSecond\":" + number(allocationMBPerSecond)
+                + ",\"relativeThroughput\":" + number(relativeThroughput)
+                + "}";
+    }
+
+    private static String number(double d) {
+        return Double.isNaN(d) || Double.isInfinite(d) ? "null" : String.format(Locale.ROOT, "%.3f", d);
+    }
+}
+
+/**
+ * Runs every structure over the same trace.
+ * Each measurement is repeated after warm-up runs; throughput is measured without
+ * per-operation timers, latencies in a separate run that times each operation.
+ * Print (3) operations are not replayed, and min/removeMin on an empty queue are skipped,
+ * because the structures do not agree on their behaviour in that case.
+ */
+class BenchRunner {
+    private final Trace trace;
+    private final int warmup;
+    private final int runs;
+    private long blackhole;
+
+    public BenchRunner(Trace trace, int warmup, int runs) {
+        this.trace = trace;
+        this.warmup = warmup;
+        this.runs = runs;
+    }
+
+    /** Names of the JDK structures accepted by {@link #create(String)}. */
+    public static final String[] JDK_STRUCTURES = { "priorityqueue", "treemap", "cslm" };
+
+    /**
+     * Builds a fresh instance of the named structure.
+     * @param engine a {@code SkipList_Engine} engine name, or priorityqueue, treemap or cslm
+     * @return the adapter
+     */
+    public QueueAdapter create(String engine) {
+        switch (engine) {
+            case "priorityqueue":
+                return new PriorityQueueAdapter();
+            case "treemap":
+                return new SortedMapAdapter(new TreeMap<>());
+            case "cslm":
+                return new SortedMapAdapter(new ConcurrentSkipListMap<>());
+            default:
+                return new EngineAdapter(SkipList_Engine.create(engine, trace.alpha));
+        }
+    }
+
+    // Replays the trace; returns the number of skipped operations.
+    private long replay(QueueAdapter q, LatencyHistogram histogram) {
+        byte[] ops = trace.ops;
+        int[] keys = trace.keys;
+        String[] values = trace.values;
+        long skipped = 0;
+        long sink = 0;
+        for (int i = 0; i < ops.length; i++) {
+            byte op = ops[i];
+            if (op == Trace.PRINT || (op != Trace.INSERT && q.isEmpty())) {
+                skipped++;
+                continue;
+            }
+            long start = histogram != null ? System.nanoTime() : 0;
+            switch (op) {
+                case Trace.MIN:
+                    sink += q.min();
+                    break;
+                case Trace.REMOVE_MIN:
+                    sink += q.removeMin();
+                    break;
+                default:
+                    q.insert(keys[i], values[i]);
+                    break;
+            }
+            if (histogram != null) {
+                histogram.record(System.nanoTime() - start);
+            }
+        }
+        blackhole += sink;
+        return skipped;
+    }
+
+    /**
+     * Measures one structure.
+     * Every phase builds its queues in its own method, so that no queue of an earlier
+     * phase is still referenced by a stack slot of this frame when the heap is measured.
+     * @param engine structure name accepted by {@link #create(String)}
+     * @return the measurements
+     */
+    public BenchResult run(String engine) {
+        for (int i = 0; i < warmup; i++) {
+            replayOnce(engine, null);
+        }
+        BenchResult result = new BenchResult();
+        result.engine = engine;
+        measureThroughput(engine, result);
+        measureLatency(engine, result);
+        measureHeap(engine, result);
+        return result;
+    }
+
+    // Replays the trace on a fresh instance and releases it.
+    private void replayOnce(String engine, LatencyHistogram histogram) {
+        try (QueueAdapter q = create(engine)) {
+            replay(q, histogram);
+        }
+    }
+
+    // Best throughput of the runs, with the allocation of the best run.
+    private void measureThroughput(String engine, BenchResult result) {
+        long bestNanos = Long.MAX_VALUE;
+        long allocated = -1;
+        for (int i = 0; i < runs; i++) {
+            try (QueueAdapter q = create(engine)) {
+                long allocBefore = allocatedBytes();
+                long start = System.nanoTime();
+                result.skipped = replay(q, null);
+                long elapsed = System.nanoTime() - start;
+                long allocAfter = allocatedBytes();
+                if (elapsed < bestNanos) {
+                    bestNanos = elapsed;
+                    allocated = allocBefore < 0 ? -1 : allocAfter - allocBefore;
+                }
+            }
+        }
+        result.ops = trace.length() - result.skipped;
+        result.opsPerSecond = result.ops / (bestNanos / 1e9);
+        result.allocatedBytesPerOp = allocated < 0 ? Double.NaN : (double) allocated / result.ops;
+        result.allocationMBPerSecond = allocated < 0 ? Double.NaN : allocated / 1e6 / (bestNanos / 1e9);
+    }
+
+    // Latency percentiles of a run timing every operation.
+    private void measureLatency(String engine, BenchResult result) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        replayOnce(engine, histogram);
+        result.p50 = histogram.percentile(50);
+        result.p90 = histogram.percentile(90);
+        result.p99 = histogram.percentile(99);
+        result.p999 = histogram.percentile(99.9);
+        result.max = histogram.getMax();
+    }
+
+    /**
+     * Heap retained by the structure after a replay, per final entry.
+     * Off-heap entries are not measured: their heap bytes per entry is reported as null.
+     */
+    private void measureHeap(String engine, BenchResult result) {
+        long heapBefore = usedHeap();
+        try (QueueAdapter q = create(engine)) {
+            replay(q, null);
+            long heapAfter = usedHeap();
+            result.finalSize = q.size();
+            result.heapBytesPerEntry = result.finalSize == 0 || q.isOffHeap() ? Double.NaN
+                    : (double) (heapAfter - heapBefore) / result.finalSize;
+            blackhole += q.size();
+        }
+    }
+
+    /** @return a value depending on every replay result */
+    public long getBlackhole() {
+        return blackhole;
+    }
+
+    // Bytes allocated so far by this thread, or -1 if the JVM does not expose it.
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    // Heap in use after the collector has settled.
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            used = Math.min(used, rt.totalMemory() - rt.freeMemory());
+        }
+        return used;
+    }
+}
+
+/**
+ * Command line entry point.
+ * Usage: java SkipList_Benchmark &lt;trace_file&gt; [options]
+ * Options:
+ * - --engines=base,template,compact,priorityqueue,treemap,cslm  structures to measure (default all);
+ *   any engine of {@code SkipList_Engine} can be named
+ * - --baseline=NAME  structure the relative throughput is computed against (default priorityqueue)
+ * - --warmup=W       discarded warm-up runs per structure (default 2)
+ * - --runs=R         measured throughput runs, the best one is reported (default 3)
+ * - --report=FILE    write the JSON report to FILE instead of standard output
+ */
+public class SkipList_Benchmark {
+    public static void main(String[] args) {
+        List<String> all = new ArrayList<>(Arrays.asList(SkipList_Engine.ENGINES));
+        all.addAll(Arrays.asList(BenchRunner.JDK_STRUCTURES));
+        if (args.length < 1) {
+            System.out.println("Usage: java SkipList_Benchmark <trace_file> [--engines=" + String.join(",", all) + "]"
+                    + " [--baseline=NAME] [--warmup=W] [--runs=R] [--report=FILE]");
+            return;
+        }
+
+        String[] engines = all.toArray(new String[0]);
+        String baseline = "priorityqueue";
+        int warmup = 2;
+        int runs = 3;
+        String report = null;
+
+        try {
+            for (int i = 1; i < args.length; i++) {
+                String[] option = args[i].split("=", 2);
+                if (option.length != 2) {
+                    System.out.println("Invalid option: " + args[i]);
+                    return;
+                }
+                switch (option[0]) {
+                    case "--engines":
+                        engines = option[1].split(",");
+                        break;
+                    case "--baseline":
+                        baseline = option[1];
+                        break;
+                    case "--warmup":
+                        warmup = Integer.parseInt(option[1]);
+                        break;
+                    case "--runs":
+                        runs = Math.max(1, Integer.parseInt(option[1]));
+                        break;
+                    case "--report":
+                        report = option[1];
+                        break;
+                    default:
+                        System.out.println("Invalid option: " + args[i]);
+                        return;
+                }
+            }
+
+            Trace trace = Trace.load(args[0]);
+            BenchRunner runner = new BenchRunner(trace, warmup, runs);
+            List<BenchResult> results = new ArrayList<>();
+            BenchResult reference = null;
+            for (String engine : engines) {
+                BenchResult result = runner.run(engine);
+                results.add(result);
+                if (engine.equals(baseline)) {
+                    reference = result;
+                }
+                System.err.println("done " + result.engine);
+            }
+            for (BenchResult result : results) {
+                result.relativeThroughput = reference == null ? Double.NaN
+                        : result.opsPerSecond / reference.opsPerSecond;
+            }
+
+            System.out.printf(Locale.ROOT, "%-22s %12s %8s %8s %8s %8s %10s %10s %10s%n",
+                    "engine", "ops/s", "relative",
+                    "p50 ns", "p99 ns", "p999 ns", "B/entry", "alloc B/op", "alloc MB/s");
+            for (BenchResult r : results) {
+                System.out.printf(Locale.ROOT, "%-22s %12.0f %7.2fx %8d %8d %8d %10.1f %10.1f %10.1f%n",
+                        r.engine, r.opsPerSecond, r.relativeThroughput, r.p50, r.p99, r.p999,
+                        r.heapBytesPerEntry, r.allocatedBytesPerOp, r.allocationMBPerSecond);
+            }
+
+            StringBuilder json = new StringBuilder();
+            json.append("{\"trace\":\"").append(args[0].replace("\\", "\\\\").replace("\"", "\\\""))
+                .append("\",\"operations\":").append(trace.length())
+                .append(",\"alpha\":").append(trace.alpha)
+                .append(",\"baseline\":\"").append(baseline)
+                .append("\",\"results\":[");
+            for (int i = 0; i < results.size(); i++) {
+                json.append(i == 0 ? "\n  " : ",\n  ").append(results.get(i).toJson());
+            }
+            json.append("\n],\"blackhole\":").append(runner.getBlackhole()).append("}\n");
+
+            if (report == null) {
+                System.out.print(json);
+            } else {
+                try (PrintWriter out = new PrintWriter(new FileWriter(report))) {
+                    out.print(json);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid argument: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e.getMessage());
+        }
+    }
+}
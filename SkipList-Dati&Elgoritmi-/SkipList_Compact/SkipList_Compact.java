@@ -0,0 +1,682 @@
+/**
+ * SkipList_Compact.java
+ *
+ * Forward-only variant of the skip list priority queue of {@code SkipList_Base}.
+ * Every node keeps only its {@code next} and {@code below} links: towers are
+ * inserted using the predecessors recorded on the search path, and
+ * {@code removeMin} advances the head sentinel of each level past the minimum's tower,
+ * since the minimum is always the first node on every level it spans.
+ * This halves the references per level and the pointer writes per insert.
+ * Optionally the values are kept in a {@link ValueStore} and nodes hold an int handle.
+ * Two lists can be merged in one linear pass, and a list can be split at a key in O(log n).
+ * {@link SkipListPQ#snapshot()} takes an immutable view in O(1) that other threads can iterate
+ * while the owner keeps mutating the list.
+ *
+ * @author jacopo
+ * @version 1.0
+ */
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+
+/**
+ * Main class to test the compact SkipListPQ implementation.
+ * Reads the same input file format as {@code SkipList_Base} and prints the same output.
+ */
+public class SkipList_Compact {
+
+    /**
+     * A node of the compact Skip List.
+     * Sentinels and the upper levels of a tower only need the key and the forward and down links.
+     */
+    static class MyEntry {
+        // Access to next with release/acquire semantics, used to publish base level nodes to snapshot readers
+        static final VarHandle NEXT;
+        static {
+            try {
+                NEXT = MethodHandles.lookup().findVarHandle(MyEntry.class, "next", MyEntry.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        protected final int key;     // Key of the Entry
+        protected MyEntry next;      // Next Entry on the same level
+        protected MyEntry below;     // Entry below
+
+        /**
+         * @param key The integer key for this entry.
+         */
+        public MyEntry(int key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Base level node of a tower, which also records the version of the list that inserted it.
+     * The tower height is not stored: it is found by following the {@code below} links of the levels above.
+     */
+    static abstract class BaseEntry extends MyEntry {
+        protected final int born;    // Version of the list when the Entry was inserted
+
+        public BaseEntry(int key, int born) {
+            super(key);
+            this.born = born;
+        }
+    }
+
+    /**
+     * Base level node holding its value as a String.
+     */
+    static class ValueEntry extends BaseEntry implements PriorityQueueEngine.Entry {
+        private final String value;  // Value of the Entry
+
+        /**
+         * @param key   The integer key for this entry.
+         * @param value The string value associated with the key.
+         */
+        public ValueEntry(int key, String value) {
+            this(key, value, 0);
+        }
+
+        /**
+         * @param key   The integer key for this entry.
+         * @param value The string value associated with the key.
+         * @param born  The version of the list inserting the entry.
+         */
+        public ValueEntry(int key, String value, int born) {
+            super(key, born);
+            this.value = value;
+        }
+
+        public Integer getKey() {
+            return key;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        // @return A string in the format "key value"
+        public String toString() {
+            return key + " " + value;
+        }
+    }
+
+    /**
+     * Base level node holding the handle of its value in a {@link ValueStore}.
+     */
+    static class EncodedEntry extends BaseEntry {
+        protected final int handle;  // Handle of the value in the store
+
+        public EncodedEntry(int key, int handle, int born) {
+            super(key, born);
+            this.handle = handle;
+        }
+    }
+
+    /**
+     * Immutable view of the entries of a {@link SkipListPQ} at one version, in ascending order of keys.
+     * The owner only ever links new nodes after existing ones and removes the minimum by advancing
+     * its head sentinels, so from the first node of the snapshot the {@code next} links still reach
+     * every node present at that version; nodes inserted later are recognised by their version and skipped.
+     * Nothing is copied, and the removed nodes stay reachable only while some snapshot references them,
+     * so they are reclaimed by the garbage collector once the snapshots are released.
+     * {@link SkipListPQ#merge} and {@link SkipListPQ#splitAt} relink existing nodes and invalidate the
+     * snapshots taken before them: iterating one then throws {@link ConcurrentModificationException},
+     * on a best-effort basis.
+     */
+    static final class Snapshot implements Iterable<PriorityQueueEngine.Entry> {
+        private final SkipListPQ owner;
+        private final MyEntry first;   // First base level node at the time of the snapshot
+        private final int version;     // Version of the owner at the time of the snapshot
+        private final int splices;     // Splice count of the owner at the time of the snapshot
+        private int size;              // Number of entries, or -1 until counted
+
+        private Snapshot(SkipListPQ owner, MyEntry first, int version, int splices, int size) {
+            this.owner = owner;
+            this.first = first;
+            this.version = version;
+            this.splices = splices;
+            this.size = size;
+        }
+
+        // @return The version of the owner when the snapshot was taken.
+        public int version() {
+            return version;
+        }
+
+        // @return The number of entries in the snapshot.
+        public int size() {
+            if (size < 0) {
+                int count = 0;
+                for (PriorityQueueEngine.Entry e : this) {
+                    count++;
+                }
+                size = count;
+            }
+            return size;
+        }
+
+        /**
+         * @return An iterator over the entries in ascending order of keys; equal keys in insertion order.
+         */
+        public Iterator<PriorityQueueEngine.Entry> iterator() {
+            return new Iterator<PriorityQueueEngine.Entry>() {
+                private MyEntry e = skipNewer(first);
+
+                public boolean hasNext() {
+                    return e != owner.tail;
+                }
+
+                public PriorityQueueEngine.Entry next() {
+                    if (e == owner.tail) {
+                        throw new NoSuchElementException();
+                    }
+                    if (owner.splices != splices) {
+                        throw new ConcurrentModificationException("Skip list merged or split after the snapshot");
+                    }
+                    BaseEntry b = (BaseEntry) e;
+                    e = skipNewer((MyEntry) MyEntry.NEXT.getAcquire(e));
+                    return owner.entry(b);
+                }
+            };
+        }
+
+        // Skips the nodes inserted after the snapshot; versions are compared so that they may wrap around.
+        private MyEntry skipNewer(MyEntry e) {
+            while (e != owner.tail && ((BaseEntry) e).born - version > 0) {
+                e = (MyEntry) MyEntry.NEXT.getAcquire(e);
+            }
+            return e;
+        }
+    }
+
+    /**
+     * Skip List priority queue with forward and down links only.
+     * Level 0 is the base level; the head sentinel of every level is kept in {@code heads},
+     * and as in {@code SkipList_Base} the top level is always empty.
+     * All levels end in one shared {@code tail} sentinel.
+     * Base level nodes are {@link ValueEntry} objects, or {@link EncodedEntry} objects
+     * when a {@link ValueStore} is given.
+     */
+    static class SkipListPQ implements PriorityQueueEngine {
+
+        private double alpha;          // Alpha parameter
+        private Random rand;           // Random number generator
+        private int level;             // Index of the (empty) top level
+        private int size;              // Number of elements, or -1 if unknown after a split
+        private MyEntry[] heads;       // Head sentinel of each level
+        private final MyEntry tail;    // Tail sentinel shared by all levels
+        private MyEntry[] preds;       // Predecessors on the search path, reused by insert
+        private final ValueStore store; // Store of the values, or null to keep Strings in the nodes
+        private int version;           // Version of the list, advanced by every insert; it may wrap around
+        private volatile int splices;  // Number of merges and splits, which invalidate the snapshots
+        protected int numExe;          // Execution count
+        protected double averageIt;    // Average number of traversed nodes
+        protected long numItTot;       // Total number of iterations
+
+        /**
+         * Constructs an empty Skip List with the base level and the empty top level.
+         *
+         * @param alpha The probability factor (between 0.0 and 1.0) for level generation,
+         * or a value outside this range to use deterministic height generation based on key divisibility by 2.
+         */
+        public SkipListPQ(double alpha) {
+            this(alpha, null);
+        }
+
+        /**
+         * Constructs an empty Skip List whose values are kept in the given store.
+         * The store may be shared by several Skip Lists.
+         *
+         * @param alpha The probability factor, as in {@link #SkipListPQ(double)}.
+         * @param store The value store, or null to keep the values as Strings in the nodes.
+         */
+        public SkipListPQ(double alpha, ValueStore store) {
+            this(alpha, store, new MyEntry(Integer.MAX_VALUE));
+        }
+
+        // Constructs an empty Skip List ending in the given tail sentinel, which splitAt shares between two lists.
+        private SkipListPQ(double alpha, ValueStore store, MyEntry tail) {
+            this.alpha = alpha;
+            this.rand = new Random();
+            this.store = store;
+            this.tail = tail;
+            this.heads = new MyEntry[8];
+            this.preds = new MyEntry[8];
+            heads[0] = new MyEntry(Integer.MIN_VALUE);
+            heads[0].next = tail;
+            heads[1] = new MyEntry(Integer.MIN_VALUE);
+            heads[1].next = tail;
+            heads[1].below = heads[0];
+            level = 1;
+            size = 0;
+        }
+
+        /**
+         * @return The number of elements. After a split it is counted once on the base level
+         * and then maintained again.
+         */
+        public int size() {
+            if (size < 0) {
+                size = 0;
+                for (MyEntry e = heads[0].next; e != tail; e = e.next) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return heads[0].next == tail;
+        }
+
+        // @return The insertion count.
+        public int numExe() {
+            return numExe;
+        }
+
+        public int getInsertCount() {
+            return numExe;
+        }
+
+        public double getAverageTraversedNodes() {
+            return averageIt;
+        }
+
+        /**
+         * @return The first base level entry, or {@code null} if the list is empty.
+         */
+        public PriorityQueueEngine.Entry min() {
+            return isEmpty() ? null : entry((BaseEntry) heads[0].next);
+        }
+
+        // Creates the base level node of a tower, stamped with a new version.
+        private BaseEntry newBase(int key, String value) {
+            int born = ++version;
+            return store == null ? new ValueEntry(key, value, born) : new EncodedEntry(key, store.put(value), born);
+        }
+
+        // Returns the base level node as an entry, decoding its value from the store if needed.
+        private PriorityQueueEngine.Entry entry(BaseEntry e) {
+            if (e instanceof ValueEntry) {
+                return (ValueEntry) e;
+            }
+            return new ValueEntry(e.key, store.get(((EncodedEntry) e).handle));
+        }
+
+        /**
+         * Inserts a new key-value pair.
+         * 1. Searches from the top level, recording the last node before the key on every level.
+         * The traversed nodes are counted as in {@code SkipList_Base.skipSearch}.
+         * 2. Generates the tower height and, if needed, adds levels so that the top one stays empty.
+         * 3. Links the tower bottom-up after the recorded predecessors.
+         *
+         * @param key   The key of the element to insert.
+         * @param value The value associated with the key.
+         * @return The number of nodes traversed during the search phase of this insertion.
+         */
+        public int insert(int key, String value) {
+            MyEntry p = heads[level];
+            int numIt = 1;
+            for (int l = level - 1; l >= 0; l--) {
+                p = p.below;
+                numIt++;
+                while (key >= p.next.key) {
+                    p = p.next;
+                    numIt++;
+                }
+                preds[l] = p;
+            }
+
+            int h = generateEll(alpha, key);
+            if (h >= level) {
+                growTo(h + 1);
+            }
+
+            BaseEntry base = newBase(key, value);
+            MyEntry below = null;
+            for (int l = 0; l <= h; l++) {
+                MyEntry q = l == 0 ? base : new MyEntry(key);
+                MyEntry pred = preds[l];
+                q.next = pred.next;
+                q.below = below;
+                if (l == 0) {
+                    // Release store: a snapshot reader reaching q also sees its fields
+                    MyEntry.NEXT.setRelease(pred, q);
+                } else {
+                    pred.next = q;
+                }
+                below = q;
+            }
+
+            if (size >= 0) {
+                size++;
+            }
+            numExe++;
+            numItTot += numIt;
+            averageIt = (double) numItTot / numExe;
+            return numIt;
+        }
+
+        /**
+         * Builds the Skip List from entries sorted by key in one linear pass:
+         * {@code preds} holds the last node of every level, and each tower is appended after them.
+         * Loaded entries are counted in the execution statistics as inserts in key order,
+         * with the traversed nodes computed as in {@code SkipList_Base.bulkLoad}.
+         * If the list is not empty, the entries are inserted one by one instead.
+         *
+         * @param keys   Keys in non-decreasing order.
+         * @param values Values associated with the keys.
+         * @param n      Number of entries to load.
+         */
+        public void bulkLoad(int[] keys, String[] values, int n) {
+            if (!isEmpty()) {
+                for (int i = 0; i < n; i++) {
+                    insert(keys[i], values[i]);
+                }
+                return;
+            }
+            size = 0;
+            for (int l = 0; l <= level; l++) {
+                preds[l] = heads[l];
+            }
+            int[] run = new int[level + 1];   // Nodes of every level after the last node of the level above
+            for (int i = 0; i < n; i++) {
+                int numIt = 1 + level;
+                for (int l = 0; l < level; l++) {
+                    numIt += run[l];
+                }
+                int h = generateEll(alpha, keys[i]);
+                if (h >= level) {
+                    growTo(h + 1);
+                }
+                BaseEntry base = newBase(keys[i], values[i]);
+                MyEntry below = null;
+                for (int l = 0; l <= h; l++) {
+                    MyEntry q = l == 0 ? base : new MyEntry(keys[i]);
+                    q.next = tail;
+                    q.below = below;
+                    if (l == 0) {
+                        MyEntry.NEXT.setRelease(preds[l], q);
+                    } else {
+                        preds[l].next = q;
+                    }
+                    preds[l] = q;
+                    below = q;
+                }
+                if (h >= run.length) {
+                    run = Arrays.copyOf(run, Math.max(run.length * 2, h + 1));
+                }
+                Arrays.fill(run, 0, h, 0);
+                run[h]++;
+                size++;
+                numExe++;
+                numItTot += numIt;
+            }
+            averageIt = numExe == 0 ? 0 : (double) numItTot / numExe;
+        }
+
+        // Adds empty levels until newLevel is the empty top level; the new levels' predecessor is their head.
+        private void growTo(int newLevel) {
+            if (newLevel + 1 > heads.length) {
+                int capacity = Math.max(heads.length * 2, newLevel + 1);
+                heads = Arrays.copyOf(heads, capacity);
+                preds = Arrays.copyOf(preds, capacity);
+            }
+            for (int l = level + 1; l <= newLevel; l++) {
+                MyEntry head = new MyEntry(Integer.MIN_VALUE);
+                head.next = tail;
+                head.below = heads[l - 1];
+                heads[l] = head;
+            }
+            for (int l = level; l < newLevel; l++) {
+                preds[l] = heads[l];
+            }
+            level = newLevel;
+        }
+
+        /**
+         * Generates a height (level) for a new node, as in {@code SkipList_Base}.
+         *
+         * @param alpha_ The alpha parameter passed during Skip List construction.
+         * @param key    The key of the node being inserted (used for deterministic strategy).
+         * @return The generated height (0-based index, e.g., 0 means only base level).
+         */
+        private int generateEll(double alpha_, int key) {
+            int level = 0;
+            if (alpha_ >= 0. && alpha_ < 1) {
+                while (rand.nextDouble() < alpha_) {
+                    level += 1;
+                }
+            } else {
+                while (key != 0 && key % 2 == 0) {
+                    key = key / 2;
+                    level += 1;
+                }
+            }
+            return level;
+        }
+
+        /**
+         * Removes the entry with the minimum key.
+         * The minimum's tower node is the first node on each of its levels,
+         * so unlinking it only advances the head sentinels of those levels;
+         * the tower goes up as long as the first node of the level above stands on it.
+         * The removed nodes keep their links, for the snapshots that still reach them.
+         *
+         * @return The removed entry, or {@code null} if the list was empty.
+         */
+        public PriorityQueueEngine.Entry removeMin() {
+            if (isEmpty()) {
+                return null;
+            }
+            BaseEntry minEntry = (BaseEntry) heads[0].next;
+            heads[0].next = minEntry.next;
+            MyEntry removed = minEntry;
+            for (int l = 1; l < level && heads[l].next.below == removed; l++) {
+                removed = heads[l].next;
+                heads[l].next = removed.next;
+            }
+            if (size > 0) {
+                size--;
+            }
+            return entry(minEntry);
+        }
+
+        /**
+         * Moves all the entries of another Skip List into this one, leaving the other empty.
+         * Every level is merged like two sorted linked lists, in one pass over both lists,
+         * and the towers are kept as they are: no heights are generated and no node is allocated.
+         * On equal keys the entries of this list come first, as if the other's were inserted later.
+         * The merged entries are not counted in the execution statistics.
+         *
+         * @param other The Skip List to merge; it must keep its values in the same store as this one.
+         * @throws IllegalArgumentException If other is this list or uses a different value store.
+         */
+        public void merge(SkipListPQ other) {
+            if (other == this) {
+                throw new IllegalArgumentException("Cannot merge a skip list with itself");
+            }
+            if (other.store != store) {
+                throw new IllegalArgumentException("Cannot merge skip lists with different value stores");
+            }
+            if (other.level > level) {
+                growTo(other.level);
+            }
+            for (int l = 0; l < other.level; l++) {
+                MyEntry p = heads[l];
+                MyEntry a = p.next;
+                MyEntry b = other.heads[l].next;
+                while (a != tail && b != other.tail) {
+                    if (b.key < a.key) {
+                        p.next = b;
+                        p = b;
+                        b = b.next;
+                    } else {
+                        p.next = a;
+                        p = a;
+                        a = a.next;
+                    }
+                }
+                if (a != tail) {
+                    p.next = a;
+                } else {
+                    // The rest of the other level ends in the other's tail: relink it to ours
+                    while (b != other.tail) {
+                        p.next = b;
+                        p = b;
+                        b = b.next;
+                    }
+                    p.next = tail;
+                }
+            }
+            size = size < 0 || other.size < 0 ? -1 : size + other.size;
+            if (other.version - version > 0) {
+                version = other.version;   // The merged nodes must not look newer than later snapshots
+            }
+            splices++;
+            other.clear();
+        }
+
+        /**
+         * Splits the Skip List at a key: this list keeps the entries with smaller keys,
+         * and the entries with keys greater than or equal to the key are moved to the returned list.
+         * The search path gives the last node before the key on every level, so the split
+         * only cuts the link after each of them and hangs the rest of the level on a new head:
+         * O(log n) expected, without visiting the moved entries.
+         * Both lists end in the same tail sentinel, which is never modified.
+         * The sizes are not known after the cut and are counted on the next {@link #size()}.
+         *
+         * @param key The first key of the returned list.
+         * @return A new Skip List with the same alpha and value store, holding the entries with keys from key on.
+         */
+        public SkipListPQ splitAt(int key) {
+            MyEntry p = heads[level];
+            for (int l = level - 1; l >= 0; l--) {
+                p = p.below;
+                while (key > p.next.key) {
+                    p = p.next;
+                }
+                preds[l] = p;
+            }
+
+            SkipListPQ right = new SkipListPQ(alpha, store, tail);
+            right.version = version;
+            right.growTo(level);
+            for (int l = 0; l < level; l++) {
+                right.heads[l].next = preds[l].next;
+                preds[l].next = tail;
+            }
+            splices++;
+            if (isEmpty()) {
+                right.size = size;
+                size = 0;
+            } else if (!right.isEmpty()) {
+                right.size = -1;
+                size = -1;
+            }
+            return right;
+        }
+
+        // Empties the list, keeping only the base level and the empty top level.
+        private void clear() {
+            heads[0].next = tail;
+            heads[1].next = tail;
+            Arrays.fill(heads, 2, heads.length, null);
+            level = 1;
+            size = 0;
+            splices++;
+        }
+
+        /**
+         * Takes an immutable view of the current entries in O(1): it only records the first node and the version.
+         * It must be called by the thread that mutates the list, or under the same lock; the snapshot can then
+         * be iterated by other threads while this list keeps inserting and removing the minimum.
+         *
+         * @return The snapshot of the current entries.
+         */
+        public Snapshot snapshot() {
+            return new Snapshot(this, heads[0].next, version, splices, size);
+        }
+
+        /**
+         * Prints the elements at the base level in ascending order of keys,
+         * with the height of each node's tower, in the format of {@code SkipList_Base}.
+         * A cursor on every upper level points to its next node, which belongs to the
+         * current tower if it stands on the tower's node of the level below.
+         */
+        public void print() {
+            if (!isEmpty()) {
+                StringBuilder sb = new StringBuilder();
+                MyEntry[] cursor = new MyEntry[level];
+                for (int l = 1; l < level; l++) {
+                    cursor[l] = heads[l].next;
+                }
+                for (MyEntry e = heads[0].next; e != tail; e = e.next) {
+                    MyEntry t = e;
+                    int h = 1;
+                    while (h < level && cursor[h].below == t) {
+                        t = cursor[h];
+                        cursor[h] = t.next;
+                        h++;
+                    }
+                    if (e != heads[0].next) {
+                        sb.append(", ");
+                    }
+                    sb.append(entry((BaseEntry) e)).append(' ').append(h);
+                }
+                System.out.println(sb);
+            } else {
+                System.out.println("Empty list, try again");
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.out.println("Usage: java TestProgram <file_path>");
+            return;
+        }
+
+        try (BufferedReader br = new BufferedReader(new FileReader(args[0]))) {
+            String[] firstLine = br.readLine().split(" ");
+            int N = Integer.parseInt(firstLine[0]);
+            double alpha = Double.parseDouble(firstLine[1]);
+            System.out.println(N + " " + alpha);
+
+            SkipListPQ skipList = new SkipListPQ(alpha);
+
+            for (int i = 0; i < N; i++) {
+                String[] line = br.readLine().split(" ");
+                int operation = Integer.parseInt(line[0]);
+
+                switch (operation) {
+                    case 0:
+                        PriorityQueueEngine.Entry minEntry = skipList.min();
+                        if (minEntry != null) System.out.println(minEntry);
+                        break;
+                    case 1:
+                        skipList.removeMin();
+                        break;
+                    case 2:
+                        skipList.insert(Integer.parseInt(line[1]), line[2]);
+                        break;
+                    case 3:
+                        skipList.print();
+                        break;
+                    default:
+                        System.out.println("Invalid operation code");
+                        return;
+                }
+            }
+            System.out.println(alpha + " " + skipList.size() + " " + skipList.numExe + " " + skipList.averageIt);
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e.getMessage());
+        }
+    }
+}
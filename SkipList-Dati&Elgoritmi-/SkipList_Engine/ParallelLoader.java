@@ -0,0 +1,373 @@
+/**
+ * ParallelLoader.java
+ *
+ * Loads the insert-only prefix of a command file with all cores: the file is split
+ * into chunks that are parsed and sorted on a fork-join pool, the sorted runs are
+ * merged, and the result is handed to {@link PriorityQueueEngine#bulkLoad}.
+ * Operations from the first min (0), removeMin (1) or print (3) onwards depend on
+ * ordering, so they are left to the caller for an ordered replay.
+ *
+ * @author jacopo
+ * @version 1.0
+ */
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelLoader {
+
+    private static final long MIN_CHUNK = 1 << 20;   // Smallest chunk worth a task, in bytes
+    private static final int CHUNKS_PER_THREAD = 4;   // Extra chunks to balance uneven lines
+
+    private final Path path;
+    private final int threads;
+    private final int n;
+    private final double alpha;
+    private final long dataStart;   // Offset of the first operation line
+    private long remainder;         // Offset of the first operation not loaded
+    private int loaded;             // Number of operations loaded
+
+    /**
+     * Sorted or unsorted insert operations of one chunk, in file order until sorted.
+     */
+    private static final class Run {
+        int[] keys = new int[1024];
+        String[] values = new String[1024];
+        int count;
+        long stopOffset = -1;   // Offset of the first non-insert line of the chunk, or -1
+
+        void add(int key, String value) {
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+                values = Arrays.copyOf(values, count * 2);
+            }
+            keys[count] = key;
+            values[count] = value;
+            count++;
+        }
+    }
+
+    /**
+     * Opens the file and reads its "N alpha" header.
+     * @param path    command file
+     * @param threads parallelism of the fork-join pool
+     * @throws IOException if the file cannot be read or the header is malformed
+     */
+    public ParallelLoader(String path, int threads) throws IOException {
+        this.path = Paths.get(path);
+        this.threads = Math.max(1, threads);
+        try (FileChannel ch = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            long end = nextLineStart(ch, 1);
+            ByteBuffer buf = ByteBuffer.allocate((int) end);
+            ch.read(buf, 0);
+            String[] firstLine = new String(buf.array(), 0, (int) end, StandardCharsets.UTF_8).trim().split(" ");
+            this.n = Integer.parseInt(firstLine[0]);
+            this.alpha = Double.parseDouble(firstLine[1]);
+            this.dataStart = end;
+        }
+    }
+
+    /** @return the number of operations N of the header */
+    public int getN() {
+        return n;
+    }
+
+    /** @return the alpha parameter of the header */
+    public double getAlpha() {
+        return alpha;
+    }
+
+    /**
+     * Parses, sorts and merges the insert-only prefix of the file in parallel
+     * and bulk loads it into the engine.
+     * @param pq empty engine to load
+     * @return the number of operations loaded; the remaining N minus this
+     *         are read in order from {@link #openRemainder()}
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if an insert line is malformed, as in a sequential run
+     */
+    public int load(PriorityQueueEngine pq) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(ch);
+            int chunks = bounds.length - 1;
+            Run[] runs = new Run[chunks];
+            AtomicInteger firstStop = new AtomicInteger(Integer.MAX_VALUE);
+
+            // Parse every chunk; chunks after the first one holding a non-insert are skipped
+            List<RecursiveAction> parsers = new ArrayList<>();
+            for (int i = 0; i < chunks; i++) {
+                final int c = i;
+                parsers.add(new RecursiveAction() {
+                    protected void compute() {
+                        if (c > firstStop.get()) {
+                            return;
+                        }
+                        runs[c] = parse(ch, bounds[c], bounds[c + 1]);
+                        if (runs[c].stopOffset >= 0) {
+                            firstStop.accumulateAndGet(c, Math::min);
+                        }
+                    }
+                });
+            }
+            pool.submit(() -> RecursiveAction.invokeAll(parsers)).get();
+
+            // Keep the runs of the prefix, in file order, truncated at N operations
+            List<Run> prefix = new ArrayList<>();
+            long total = 0;
+            remainder = bounds[chunks];
+            for (int i = 0; i < chunks && total < n; i++) {
+                Run run = runs[i];
+                if (run.count > n - total) {
+                    run.count = (int) (n - total);
+                }
+                total += run.count;
+                prefix.add(run);
+                if (run.stopOffset >= 0) {
+                    remainder = run.stopOffset;
+                    break;
+                }
+            }
+            loaded = (int) total;
+
+            // Sort each run, then merge them pairwise
+            List<RecursiveAction> sorters = new ArrayList<>();
+            for (Run run : prefix) {
+                sorters.add(new RecursiveAction() {
+                    protected void compute() {
+                        sort(run);
+                    }
+                });
+            }
+            pool.submit(() -> RecursiveAction.invokeAll(sorters)).get();
+            Run merged = prefix.isEmpty() ? new Run() : pool.invoke(new MergeTask(prefix, 0, prefix.size()));
+
+            pq.bulkLoad(merged.keys, merged.values, merged.count);
+            return loaded;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading", e);
+        } catch (java.util.concurrent.ExecutionException e) {
+            // The pool rethrows a copy of the exception of a task, caused by the original one:
+            // report the original, as a sequential run does
+            Throwable cause = e.getCause();
+            while (!(cause instanceof UncheckedIOException) && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Opens a reader on the operations that {@link #load} did not consume.
+     * @return a reader positioned on the first remaining operation line
+     * @throws IOException if the file cannot be read
+     */
+    public BufferedReader openRemainder() throws IOException {
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+        ch.position(remainder);
+        return new BufferedReader(new InputStreamReader(Channels.newInputStream(ch), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    // Splits the operation lines in chunks starting at line boundaries.
+    private long[] chunkBounds(FileChannel ch) throws IOException {
+        long size = ch.size();
+        long chunk = Math.max(MIN_CHUNK, (size - dataStart) / ((long) threads * CHUNKS_PER_THREAD) + 1);
+        chunk = Math.min(chunk, Integer.MAX_VALUE - 8);
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(dataStart);
+        long pos = dataStart;
+        while (pos < size) {
+            pos = pos + chunk >= size ? size : nextLineStart(ch, pos + chunk);
+            bounds.add(pos);
+        }
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    // Offset just after the first '\n' at or after pos - 1, or the file size.
+    private static long nextLineStart(FileChannel ch, long pos) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(4096);
+        long p = pos - 1;
+        while (true) {
+            buf.clear();
+            int read = ch.read(buf, p);
+            if (read <= 0) {
+                return ch.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (buf.get(i) == '\n') {
+                    return p + i + 1;
+                }
+            }
+            p += read;
+        }
+    }
+
+    // Parses the insert lines of [start, end) until the first line that is not an insert.
+    private static Run parse(FileChannel ch, long start, long end) {
+        byte[] bytes = new byte[(int) (end - start)];
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(bytes);
+            while (buf.hasRemaining()) {
+                if (ch.read(buf, start + buf.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Run run = new Run();
+        int i = 0;
+        int len = bytes.length;
+        while (i < len) {
+            int lineStart = i;
+            if (bytes[i] != '2' || i + 1 >= len || bytes[i + 1] != ' ') {
+                run.stopOffset = start + lineStart;
+                return run;
+            }
+            i += 2;
+            boolean negative = false;
+            if (i < len && bytes[i] == '-') {
+                negative = true;
+                i++;
+            }
+            long key = 0;
+            int digits = 0;
+            while (i < len && bytes[i] >= '0' && bytes[i] <= '9') {
+                key = key * 10 + (bytes[i] - '0');
+                digits++;
+                i++;
+            }
+            key = negative ? -key : key;
+            if (digits == 0 || digits > 10 || i >= len || bytes[i] != ' '
+                    || key < Integer.MIN_VALUE || key > Integer.MAX_VALUE) {
+                i = parseLine(run, bytes, lineStart);
+                continue;
+            }
+            i++;
+            int valueStart = i;
+            while (i < len && bytes[i] != ' ' && bytes[i] != '\r' && bytes[i] != '\n') {
+                i++;
+            }
+            run.add((int) key, new String(bytes, valueStart, i - valueStart, StandardCharsets.UTF_8));
+            while (i < len && bytes[i] != '\n') {
+                i++;
+            }
+            i++;
+        }
+        return run;
+    }
+
+    /**
+     * Parses an unusual insert line exactly as {@code SkipList_Engine.execute} does,
+     * so that a malformed line raises the same exception as in a sequential run.
+     * @return the offset of the next line
+     */
+    private static int parseLine(Run run, byte[] bytes, int lineStart) {
+        int lineEnd = lineStart;
+        while (lineEnd < bytes.length && bytes[lineEnd] != '\n') {
+            lineEnd++;
+        }
+        int textEnd = lineEnd > lineStart && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+        String[] line = new String(bytes, lineStart, textEnd - lineStart, StandardCharsets.UTF_8).split(" ");
+        run.add(Integer.parseInt(line[1]), line[2]);
+        return lineEnd + 1;
+    }
+
+    // Sorts a run by key; equal keys keep their file order.
+    private static void sort(Run run) {
+        int count = run.count;
+        long[] packed = new long[count];
+        for (int i = 0; i < count; i++) {
+            packed[i] = ((long) run.keys[i] << 32) | i;
+        }
+        Arrays.sort(packed);
+        int[] keys = new int[count];
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            int index = (int) packed[i];
+            keys[i] = run.keys[index];
+            values[i] = run.values[index];
+        }
+        run.keys = keys;
+        run.values = values;
+    }
+
+    /**
+     * Merges the sorted runs [lo, hi) by halves; on equal keys the earlier run wins,
+     * so equal keys stay in file order.
+     */
+    private static final class MergeTask extends RecursiveTask<Run> {
+        private static final long serialVersionUID = 1L;
+        private final List<Run> runs;
+        private final int lo;
+        private final int hi;
+
+        MergeTask(List<Run> runs, int lo, int hi) {
+            this.runs = runs;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected Run compute() {
+            if (hi - lo == 1) {
+                return runs.get(lo);
+            }
+            int mid = (lo + hi) >>> 1;
+            MergeTask left = new MergeTask(runs, lo, mid);
+            left.fork();
+            Run b = new MergeTask(runs, mid, hi).compute();
+            Run a = left.join();
+
+            Run out = new Run();
+            out.count = a.count + b.count;
+            out.keys = new int[out.count];
+            out.values = new String[out.count];
+            int i = 0, j = 0, k = 0;
+            while (i < a.count && j < b.count) {
+                if (b.keys[j] < a.keys[i]) {
+                    out.keys[k] = b.keys[j];
+                    out.values[k++] = b.values[j++];
+                } else {
+                    out.keys[k] = a.keys[i];
+                    out.values[k++] = a.values[i++];
+                }
+            }
+            while (i < a.count) {
+                out.keys[k] = a.keys[i];
+                out.values[k++] = a.values[i++];
+            }
+            while (j < b.count) {
+                out.keys[k] = b.keys[j];
+                out.values[k++] = b.values[j++];
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/**
+ * PipelinedReplay.java
+ *
+ * Replays operation lines on a {@link PriorityQueueEngine} in three stages running on
+ * their own threads: a reader parses the lines into a ring of primitive operation records,
+ * the calling thread executes the records on the engine in batches, and a writer prints
+ * their output. Reading and parsing, queue operations and output then overlap, while
+ * the operations are still executed one at a time and in file order.
+ *
+ * @author jacopo
+ * @version 1.0
+ */
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public class PipelinedReplay {
+
+    private static final int RING_SIZE = 1 << 14;      // Operation records in the ring, a power of two
+    private static final int BATCH = 256;              // Records parsed before publishing them
+    private static final int OUTPUT_CHUNK = 1 << 16;   // Output bytes collected before handing them to the writer
+    private static final int OUTPUT_QUEUE = 64;        // Output chunks waiting for the writer
+    private static final int SPINS = 1000;             // Busy spins before yielding while waiting
+    private static final byte[] END = new byte[0];     // Last output chunk
+
+    // Ring of operation records, written by the reader and read by the executor
+    private final int[] ops = new int[RING_SIZE];
+    private final int[] keys = new int[RING_SIZE];
+    private final String[] values = new String[RING_SIZE];
+    private final AtomicLong published = new AtomicLong();   // Records parsed and visible to the executor
+    private final AtomicLong consumed = new AtomicLong();    // Records executed, whose slots can be reused
+    private volatile boolean stopped;                        // Set by the executor to stop the reader
+    private long errorAt = -1;                               // Record of a line that could not be read or parsed
+    private Exception error;                                 // Cause of that failure, published with the record
+
+    private PipelinedReplay() {
+    }
+
+    /**
+     * Executes the next n operation lines of a command file on the engine,
+     * with the same effect and output as {@link SkipList_Engine#execute}.
+     * While running, {@code System.out} is redirected so that the output of the
+     * engine's {@code print} also goes through the writer stage.
+     * @param skipList engine to run the operations on
+     * @param br       reader positioned on an operation line
+     * @param n        number of operations to execute
+     * @return false if an invalid operation code was found
+     * @throws IOException if the file cannot be read or ends before n operations
+     */
+    public static boolean execute(PriorityQueueEngine skipList, BufferedReader br, int n) throws IOException {
+        PipelinedReplay replay = new PipelinedReplay();
+        Thread reader = new Thread(() -> replay.read(br, n), "replay-reader");
+        reader.setDaemon(true);
+
+        PrintStream stdout = System.out;
+        BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(OUTPUT_QUEUE);
+        Thread writer = new Thread(() -> write(chunks, stdout), "replay-writer");
+        writer.setDaemon(true);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(OUTPUT_CHUNK * 2);
+        PrintStream out = new PrintStream(buffer);
+        System.setOut(out);
+        reader.start();
+        writer.start();
+        try {
+            return replay.executeRecords(skipList, n, out, buffer, chunks);
+        } finally {
+            replay.stopped = true;
+            out.flush();
+            if (buffer.size() > 0) {
+                put(chunks, buffer.toByteArray());
+            }
+            put(chunks, END);
+            join(writer);
+            System.setOut(stdout);
+        }
+    }
+
+    // Reader stage: parses n lines into the ring, publishing them in batches.
+    private void read(BufferedReader br, int n) {
+        for (long seq = 0; seq < n && !stopped; seq++) {
+            long wrap = seq - RING_SIZE;
+            for (int spins = 0; consumed.get() <= wrap; spins++) {
+                if (stopped) {
+                    return;
+                }
+                idle(spins);
+            }
+            int slot = (int) seq & (RING_SIZE - 1);
+            try {
+                String line = br.readLine();
+                if (line == null) {
+                    throw new EOFException("File ended after " + seq + " of " + n + " operations");
+                }
+                parse(line, slot);
+            } catch (IOException | RuntimeException e) {
+                error = e;
+                errorAt = seq;
+                published.set(seq + 1);
+                return;
+            }
+            if ((seq + 1) % BATCH == 0 || seq + 1 == n) {
+                published.set(seq + 1);
+            }
+        }
+    }
+
+    // Fills a record from a line, splitting it on spaces as SkipList_Engine.execute does.
+    private void parse(String line, int slot) {
+        try {
+            int sp1 = line.indexOf(' ');
+            int op = Integer.parseInt(line, 0, sp1 < 0 ? line.length() : sp1, 10);
+            ops[slot] = op;
+            if (op == 2) {
+                int sp2 = line.indexOf(' ', sp1 + 1);
+                keys[slot] = Integer.parseInt(line, sp1 + 1, sp2, 10);
+                int sp3 = line.indexOf(' ', sp2 + 1);
+                String value = line.substring(sp2 + 1, sp3 < 0 ? line.length() : sp3);
+                if (value.isEmpty()) {
+                    throw new IllegalArgumentException();
+                }
+                values[slot] = value;
+            }
+        } catch (RuntimeException e) {
+            // Unusual line: parse it exactly as the sequential driver, raising the same exception
+            String[] tokens = line.split(" ");
+            ops[slot] = Integer.parseInt(tokens[0]);
+            if (ops[slot] == 2) {
+                keys[slot] = Integer.parseInt(tokens[1]);
+                values[slot] = tokens[2];
+            }
+        }
+    }
+
+    // Executor stage: runs the published records in order, collecting their output in chunks.
+    private boolean executeRecords(PriorityQueueEngine skipList, int n, PrintStream out,
+                                   ByteArrayOutputStream buffer, BlockingQueue<byte[]> chunks) throws IOException {
+        long seq = 0;
+        while (seq < n) {
+            long available = published.get();
+            for (int spins = 0; available == seq; spins++) {
+                idle(spins);
+                available = published.get();
+            }
+            for (; seq < available; seq++) {
+                if (seq == errorAt) {
+                    if (error instanceof IOException) {
+                        throw (IOException) error;
+                    }
+                    throw (RuntimeException) error;
+                }
+                int slot = (int) seq & (RING_SIZE - 1);
+                switch (ops[slot]) {
+                    case 0:
+                        PriorityQueueEngine.Entry minEntry = skipList.min();
+                        if (minEntry != null) out.println(minEntry);
+                        break;
+                    case 1:
+                        skipList.removeMin();
+                        break;
+                    case 2:
+                        skipList.insert(keys[slot], values[slot]);
+                        values[slot] = null;
+                        break;
+                    case 3:
+                        skipList.print();
+                        break;
+                    default:
+                        out.println("Invalid operation code");
+                        return false;
+                }
+            }
+            consumed.set(seq);
+            if (buffer.size() >= OUTPUT_CHUNK) {
+                out.flush();
+                put(chunks, buffer.toByteArray());
+                buffer.reset();
+            }
+        }
+        return true;
+    }
+
+    // Writer stage: prints the output chunks until the last one.
+    private static void write(BlockingQueue<byte[]> chunks, PrintStream stdout) {
+        try {
+            for (byte[] chunk = chunks.take(); chunk != END; chunk = chunks.take()) {
+                stdout.write(chunk, 0, chunk.length);
+            }
+            stdout.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void put(BlockingQueue<byte[]> chunks, byte[] chunk) {
+        try {
+            chunks.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new IOException("Interrupted while writing the output", e));
+        }
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Waits for the other stage: spins first, then yields, then parks briefly.
+    private static void idle(int spins) {
+        if (spins < SPINS) {
+            Thread.onSpinWait();
+        } else if (spins < 2 * SPINS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(50_000);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * PriorityQueueEngine.java
+ *
+ * Common interface of the skip list priority queues, so that the engines
+ * can be swapped by the driver without changing its callers.
+ *
+ * @author jacopo
+ * @version 1.0
+ */
+public interface PriorityQueueEngine {
+
+    /**
+     * A key-value pair returned by {@link #min()} and {@link #removeMin()}.
+     */
+    interface Entry {
+        /** @return the integer key */
+        Integer getKey();
+
+        /** @return the string value */
+        String getValue();
+    }
+
+    /**
+     * Inserts a new key-value pair.
+     * @param key   the priority key
+     * @param value the associated value
+     * @return the number of nodes traversed while searching the insert position
+     */
+    int insert(int key, String value);
+
+    /**
+     * Loads entries already sorted by key, as if they were inserted one by one
+     * in the given order. Equal keys keep that order.
+     * Engines with a linear build do it without searching when the queue is empty;
+     * the default implementation simply inserts them. Either way the loaded entries
+     * count in the insert statistics as inserts in the given order.
+     * @param keys   keys in non-decreasing order
+     * @param values values, parallel to keys
+     * @param n      number of entries to load
+     */
+    default void bulkLoad(int[] keys, String[] values, int n) {
+        for (int i = 0; i < n; i++) {
+            insert(keys[i], values[i]);
+        }
+    }
+
+    /**
+     * Returns the entry with the minimum key without removing it.
+     * @return the minimum entry, or null if the queue is empty
+     */
+    Entry min();
+
+    /**
+     * Removes and returns the entry with the minimum key.
+     * @return the removed entry, or null if the queue is empty
+     */
+    Entry removeMin();
+
+    /** @return number of stored entries */
+    int size();
+
+    /** @return true if no entries are stored */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** @return number of insert operations performed */
+    int getInsertCount();
+
+    /** @return average number of nodes traversed per insert */
+    double getAverageTraversedNodes();
+
+    /** Prints all entries in ascending order of key, with their tower heights. */
+    void print();
+}
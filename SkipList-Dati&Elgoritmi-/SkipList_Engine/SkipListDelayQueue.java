@@ -0,0 +1,241 @@
+/**
+ * SkipListDelayQueue.java
+ *
+ * Blocking delay queue over a {@link PriorityQueueEngine}, for timers and schedulers.
+ * Keys are due times in milliseconds since the queue was created, so an entry
+ * becomes available once its key is reached, and consumers block until then.
+ *
+ * @author jacopo
+ * @version 1.0
+ */
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Only one waiting thread, the leader, sleeps until the due time of the head;
+ * the other consumers wait without a deadline until the leader takes the head
+ * or an earlier entry is offered (leader-follower pattern, as in
+ * {@code java.util.concurrent.DelayQueue}).
+ * Waiting uses a {@link ReentrantLock} and its {@link Condition} rather than monitors,
+ * so blocked consumers do not pin carrier threads when run on virtual threads.
+ * Keys are ints, so due times must lie within {@link Integer#MAX_VALUE} milliseconds
+ * (about 24.8 days) of the queue creation: past that, {@link #now()} and {@link #schedule}
+ * throw instead of wrapping around to negative keys that would be due at once.
+ * A long-running scheduler replaces its queue before then.
+ */
+public class SkipListDelayQueue {
+
+    private final PriorityQueueEngine pq;
+    private final long origin;   // System.nanoTime() of key 0
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private Thread leader;   // Thread waiting for the head's due time, if any
+
+    /**
+     * Creates a delay queue over an empty engine.
+     * The engine must not be used directly while the queue is in use.
+     * @param pq the engine storing the entries
+     */
+    public SkipListDelayQueue(PriorityQueueEngine pq) {
+        this(pq, System.nanoTime());
+    }
+
+    /**
+     * Creates a delay queue whose key 0 is the given instant.
+     * @param pq     the engine storing the entries
+     * @param origin the {@link System#nanoTime()} value of key 0, not after the current one
+     */
+    SkipListDelayQueue(PriorityQueueEngine pq, long origin) {
+        this.pq = pq;
+        this.origin = origin;
+    }
+
+    /**
+     * @return the current time as a key, in milliseconds since the queue was created
+     * @throws IllegalStateException if the queue is older than the key range
+     */
+    public int now() {
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - origin);
+        if (millis > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Queue older than the key range: " + millis + " ms");
+        }
+        return (int) millis;
+    }
+
+    /**
+     * Adds an entry due at the given key.
+     * @param dueKey due time, in milliseconds since the queue was created
+     * @param value  the associated value
+     */
+    public void offer(int dueKey, String value) {
+        lock.lock();
+        try {
+            PriorityQueueEngine.Entry first = pq.min();
+            pq.insert(dueKey, value);
+            if (first == null || dueKey < first.getKey()) {
+                // New head: the leader's deadline is stale
+                leader = null;
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds an entry due after the given delay.
+     * @param delay delay from now
+     * @param unit  unit of the delay
+     * @param value the associated value
+     * @return the key the entry was stored with; a negative delay gives a key already due,
+     * at least {@link Integer#MIN_VALUE}
+     * @throws IllegalArgumentException if the due time is beyond the key range
+     * @throws IllegalStateException if the queue is older than the key range
+     */
+    public int schedule(long delay, TimeUnit unit, String value) {
+        int now = now();
+        long millis = unit.toMillis(delay);   // Saturated, so the checks below cannot overflow
+        if (millis >= Integer.MAX_VALUE - now) {
+            throw new IllegalArgumentException("Due time beyond the key range: " + now + " + " + millis + " ms");
+        }
+        int due = (int) Math.max(now + millis, Integer.MIN_VALUE);
+        offer(due, value);
+        return due;
+    }
+
+    /**
+     * Removes the head if it is due.
+     * @return the due head, or null if the queue is empty or the head is not due yet
+     */
+    public PriorityQueueEngine.Entry poll() {
+        lock.lock();
+        try {
+            PriorityQueueEngine.Entry first = pq.min();
+            return first == null || delayNanos(first) > 0 ? null : pq.removeMin();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the head, waiting until it is due.
+     * @return the head
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public PriorityQueueEngine.Entry take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                PriorityQueueEngine.Entry first = pq.min();
+                if (first == null) {
+                    available.await();
+                    continue;
+                }
+                long delay = delayNanos(first);
+                if (delay <= 0) {
+                    return pq.removeMin();
+                }
+                if (leader != null) {
+                    available.await();
+                } else {
+                    Thread thisThread = Thread.currentThread();
+                    leader = thisThread;
+                    try {
+                        available.awaitNanos(delay);
+                    } finally {
+                        if (leader == thisThread) {
+                            leader = null;
+                        }
+                    }
+                }
+            }
+        } finally {
+            signalNextLeader();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the head, waiting until it is due or the timeout expires.
+     * @param timeout maximum time to wait
+     * @param unit    unit of the timeout
+     * @return the head, or null if none became due before the timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public PriorityQueueEngine.Entry poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                PriorityQueueEngine.Entry first = pq.min();
+                if (first == null) {
+                    if (nanos <= 0) {
+                        return null;
+                    }
+                    nanos = available.awaitNanos(nanos);
+                    continue;
+                }
+                long delay = delayNanos(first);
+                if (delay <= 0) {
+                    return pq.removeMin();
+                }
+                if (nanos <= 0) {
+                    return null;
+                }
+                if (nanos < delay || leader != null) {
+                    nanos = available.awaitNanos(nanos);
+                } else {
+                    Thread thisThread = Thread.currentThread();
+                    leader = thisThread;
+                    try {
+                        long slept = delay - available.awaitNanos(delay);
+                        nanos -= slept;
+                    } finally {
+                        if (leader == thisThread) {
+                            leader = null;
+                        }
+                    }
+                }
+            }
+        } finally {
+            signalNextLeader();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the head without removing it, whether it is due or not.
+     * @return the head, or null if the queue is empty
+     */
+    public PriorityQueueEngine.Entry peek() {
+        lock.lock();
+        try {
+            return pq.min();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return number of entries, due or not */
+    public int size() {
+        lock.lock();
+        try {
+            return pq.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Wakes a follower to become the next leader if entries remain and nobody leads.
+    private void signalNextLeader() {
+        if (leader == null && !pq.isEmpty()) {
+            available.signal();
+        }
+    }
+
+    // Nanoseconds until the entry is due, negative if overdue.
+    private long delayNanos(PriorityQueueEngine.Entry e) {
+        return origin + TimeUnit.MILLISECONDS.toNanos(e.getKey()) - System.nanoTime();
+    }
+}
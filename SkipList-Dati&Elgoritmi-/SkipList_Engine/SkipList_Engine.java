@@ -0,0 +1,239 @@
+/**
+ * SkipList_Engine.java
+ *
+ * Single driver for every {@link PriorityQueueEngine}: the engine is chosen
+ * on the command line, so different engines can replay the same trace
+ * from one binary.
+ *
+ * @author jacopo
+ * @version 1.0
+ */
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Reads operations from a file and executes them on the selected engine.
+ * The input file format is the one of {@code SkipList_Base} and {@code SkipList_Template}:
+ * - First line: N alpha
+ * - Subsequent N lines: operation [key value]
+ * - operation 0: Print minimum element
+ * - operation 1: Remove minimum element
+ * - operation 2: Insert key value
+ * - operation 3: Print entire list (base level)
+ * Finally, prints "alpha size inserts averageTraversedNodes".
+ * Malformed input, read errors and engine failures print a message and exit with status 1.
+ * With --parallel the insert-only prefix of the file is bulk loaded by {@link ParallelLoader}:
+ * the other output is the same, but the final line counts the prefix as inserted in key order,
+ * so its average traversed nodes differs from a sequential run.
+ * With --capacity=K the queue keeps at most the K smallest keys (base engine only);
+ * it cannot be combined with --parallel, whose key-ordered load would evict and reject
+ * other entries than the file order does.
+ * With --pipeline the lines are parsed, executed and printed by three threads
+ * through {@link PipelinedReplay}, still in file order.
+ * With --map=FILE the mapped engine uses the given file, which may already hold a queue
+ * or be shared with other processes, instead of a temporary one.
+ */
+public class SkipList_Engine {
+
+    /** Engine names accepted by {@link #create(String, double)}. */
+    public static final String[] ENGINES = { "base", "template", "compact", "compact-encoded", "mapped", "balanced" };
+
+    /** Size of the file mapped by the mapped engine when it creates a queue. */
+    public static final long MAP_BYTES = 1L << 28;
+
+    /**
+     * Builds an empty engine.
+     * @param name  one of {@link #ENGINES}
+     * @param alpha level-up probability, or a value outside [0, 1) for deterministic heights;
+     *              the balanced engine ignores it
+     * @return the engine
+     */
+    public static PriorityQueueEngine create(String name, double alpha) {
+        return create(name, alpha, 0);
+    }
+
+    /**
+     * Builds an empty engine, bounded to a capacity if one is given.
+     * Only the base engine supports a capacity: when full it rejects keys not smaller
+     * than its maximum and otherwise evicts the maximum.
+     * @param name     one of {@link #ENGINES}
+     * @param alpha    level-up probability, or a value outside [0, 1) for deterministic heights
+     * @param capacity maximum number of entries, or 0 for unbounded
+     * @return the engine
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public static PriorityQueueEngine create(String name, double alpha, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        }
+        if (capacity > 0) {
+            if (!name.equals("base")) {
+                throw new IllegalArgumentException("Engine " + name + " does not support a capacity");
+            }
+            return new SkipList_Base.SkipListPQ(alpha, capacity);
+        }
+        switch (name) {
+            case "base":
+                return new SkipList_Base.SkipListPQ(alpha);
+            case "template":
+                return new SkipList_Template.SkipListPQ(alpha);
+            case "compact":
+                return new SkipList_Compact.SkipListPQ(alpha);
+            case "compact-encoded":
+                return new SkipList_Compact.SkipListPQ(alpha, new ValueStore());
+            case "mapped":
+                try {
+                    return SkipList_Mapped.SkipListPQ.temporary(alpha, MAP_BYTES);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            case "balanced":
+                return new SkipList_Balanced.SkipListPQ();
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + name);
+        }
+    }
+
+    /**
+     * Executes the next n operation lines of a command file on the engine.
+     * @param skipList engine to run the operations on
+     * @param br       reader positioned on an operation line
+     * @param n        number of operations to execute
+     * @return false if an invalid operation code was found
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean execute(PriorityQueueEngine skipList, BufferedReader br, int n) throws IOException {
+        for (int i = 0; i < n; i++) {
+            String[] line = br.readLine().split(" ");
+            int operation = Integer.parseInt(line[0]);
+
+            switch (operation) {
+                case 0:
+                    PriorityQueueEngine.Entry minEntry = skipList.min();
+                    if (minEntry != null) System.out.println(minEntry);
+                    break;
+                case 1:
+                    skipList.removeMin();
+                    break;
+                case 2:
+                    skipList.insert(Integer.parseInt(line[1]), line[2]);
+                    break;
+                case 3:
+                    skipList.print();
+                    break;
+                default:
+                    System.out.println("Invalid operation code");
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    public static void main(String[] args) {
+        String engine = "base";
+        int threads = 0;
+        int capacity = 0;
+        String mapPath = null;
+        boolean pipeline = false;
+        String path = null;
+        PriorityQueueEngine skipList = null;
+        int status = 0;   // Exit status, 1 after an error
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--engine=")) {
+                    engine = arg.substring("--engine=".length());
+                } else if (arg.equals("--parallel")) {
+                    threads = Runtime.getRuntime().availableProcessors();
+                } else if (arg.startsWith("--parallel=")) {
+                    threads = Integer.parseInt(arg.substring("--parallel=".length()));
+                } else if (arg.startsWith("--capacity=")) {
+                    capacity = Integer.parseInt(arg.substring("--capacity=".length()));
+                    if (capacity < 1) {
+                        throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+                    }
+                } else if (arg.equals("--pipeline")) {
+                    pipeline = true;
+                } else if (arg.startsWith("--map=")) {
+                    mapPath = arg.substring("--map=".length());
+                } else if (path == null) {
+                    path = arg;
+                } else {
+                    path = null;
+                    break;
+                }
+            }
+            if (path == null) {
+                System.out.println("Usage: java SkipList_Engine [--engine=" + String.join("|", ENGINES) + "] [--parallel[=THREADS]] [--capacity=K] [--map=FILE] [--pipeline] <file_path>");
+                System.out.println("  --parallel counts the insert-only prefix as inserted in key order: the final average traversed nodes differs from a sequential run");
+                return;
+            }
+            if (mapPath != null && (!engine.equals("mapped") || capacity > 0)) {
+                throw new IllegalArgumentException("--map requires --engine=mapped and no capacity");
+            }
+            if (threads > 0 && capacity > 0) {
+                throw new IllegalArgumentException("--parallel cannot be combined with --capacity");
+            }
+
+            double alpha;
+            if (threads > 0) {
+                // Bulk load the insert-only prefix in parallel, then replay the rest in order
+                ParallelLoader loader = new ParallelLoader(path, threads);
+                alpha = loader.getAlpha();
+                System.out.println(loader.getN() + " " + alpha);
+                skipList = mapPath != null ? new SkipList_Mapped.SkipListPQ(mapPath, alpha, MAP_BYTES) : create(engine, alpha, capacity);
+                int loaded = loader.load(skipList);
+                try (BufferedReader br = loader.openRemainder()) {
+                    int remaining = loader.getN() - loaded;
+                    if (!(pipeline ? PipelinedReplay.execute(skipList, br, remaining) : execute(skipList, br, remaining))) {
+                        return;
+                    }
+                }
+            } else {
+                try (BufferedReader br = new BufferedReader(new FileReader(path))) {
+                    String[] firstLine = br.readLine().split(" ");
+                    int N = Integer.parseInt(firstLine[0]);
+                    alpha = Double.parseDouble(firstLine[1]);
+                    System.out.println(N + " " + alpha);
+
+                    skipList = mapPath != null ? new SkipList_Mapped.SkipListPQ(mapPath, alpha, MAP_BYTES) : create(engine, alpha, capacity);
+                    if (!(pipeline ? PipelinedReplay.execute(skipList, br, N) : execute(skipList, br, N))) {
+                        return;
+                    }
+                }
+            }
+
+            System.out.println(alpha + " " + skipList.size() + " " + skipList.getInsertCount() + " " + skipList.getAverageTraversedNodes());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid argument: " + e.getMessage());
+            status = 1;
+        } catch (IllegalStateException e) {
+            // The engine cannot go on, e.g. a full mapped file
+            System.out.println("Engine error: " + e.getMessage());
+            status = 1;
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e.getMessage());
+            status = 1;
+        } catch (UncheckedIOException e) {
+            System.out.println("Error reading file: " + e.getCause().getMessage());
+            status = 1;
+        } finally {
+            close(skipList);
+        }
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    // Closes an engine holding a file, such as the mapped engine; other engines need nothing.
+    private static void close(PriorityQueueEngine pq) {
+        if (pq instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) pq).close();
+            } catch (Exception e) {
+                System.out.println("Error closing the engine: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * ValueStore.java
+ *
+ * Append-only store of string values encoded as UTF-8 bytes in a paged arena.
+ * Values are dictionary encoded: storing a value equal to one already stored
+ * returns the same int handle, so repeated values cost no memory, and nodes can
+ * hold an int handle instead of a String reference.
+ * The bytes of a value are never released; the store is meant to be shared by
+ * queues whose values repeat, and it is not thread-safe.
+ *
+ * @author jacopo
+ * @version 1.0
+ */
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class ValueStore {
+
+    private static final int PAGE_BITS = 20;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;       // Bytes per arena page
+    private static final int MAX_PAGES = 1 << (31 - PAGE_BITS);  // Pages addressable by an int handle
+
+    private byte[][] pages = new byte[16][];
+    private int pageCount;      // Number of allocated pages
+    private int pageUsed;       // Bytes used in the last page
+    private int[] table = new int[1024];  // Handle + 1 of every distinct value, 0 if free
+    private int distinct;       // Number of distinct values
+    private long bytes;         // Arena bytes in use
+
+    /**
+     * Stores a value, or finds the equal value already stored.
+     * @param value the value to store
+     * @return the handle of the value
+     * @throws IllegalStateException if the arena has no addressable space left
+     */
+    public int put(String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        int mask = table.length - 1;
+        int i = hash(utf8, 0, utf8.length) & mask;
+        while (table[i] != 0) {
+            int handle = table[i] - 1;
+            if (matches(handle, utf8)) {
+                return handle;
+            }
+            i = (i + 1) & mask;
+        }
+        int handle = append(utf8);
+        table[i] = handle + 1;
+        distinct++;
+        if (distinct * 2 > table.length) {
+            rehash();
+        }
+        return handle;
+    }
+
+    /**
+     * Decodes a stored value.
+     * @param handle a handle returned by {@link #put(String)}
+     * @return the value
+     */
+    public String get(int handle) {
+        byte[] page = pages[handle >>> PAGE_BITS];
+        int pos = handle & (PAGE_SIZE - 1);
+        int len = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = page[pos++];
+            len |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return new String(page, pos, len, StandardCharsets.UTF_8);
+    }
+
+    /** @return number of distinct values stored */
+    public int distinct() {
+        return distinct;
+    }
+
+    /** @return arena bytes in use, including the length prefixes */
+    public long bytes() {
+        return bytes;
+    }
+
+    // Writes a length-prefixed value and returns its handle; values never span pages.
+    private int append(byte[] utf8) {
+        int need = varintSize(utf8.length) + utf8.length;
+        if (pageCount == 0 || pageUsed + need > pages[pageCount - 1].length) {
+            if (pageCount == MAX_PAGES) {
+                throw new IllegalStateException("Value store is full");
+            }
+            if (pageCount == pages.length) {
+                pages = Arrays.copyOf(pages, pageCount * 2);
+            }
+            pages[pageCount++] = new byte[Math.max(PAGE_SIZE, need)];
+            pageUsed = 0;
+        }
+        byte[] page = pages[pageCount - 1];
+        int handle = ((pageCount - 1) << PAGE_BITS) | pageUsed;
+        int len = utf8.length;
+        while (len >= 0x80) {
+            page[pageUsed++] = (byte) (len | 0x80);
+            len >>>= 7;
+        }
+        page[pageUsed++] = (byte) len;
+        System.arraycopy(utf8, 0, page, pageUsed, utf8.length);
+        pageUsed += utf8.length;
+        bytes += need;
+        return handle;
+    }
+
+    // True if the value stored at handle has exactly the given bytes.
+    private boolean matches(int handle, byte[] utf8) {
+        byte[] page = pages[handle >>> PAGE_BITS];
+        int pos = handle & (PAGE_SIZE - 1);
+        int len = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = page[pos++];
+            len |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return len == utf8.length && Arrays.equals(page, pos, pos + len, utf8, 0, len);
+    }
+
+    // Doubles the dictionary, rehashing the stored bytes.
+    private void rehash() {
+        int[] old = table;
+        table = new int[old.length * 2];
+        int mask = table.length - 1;
+        for (int entry : old) {
+            if (entry == 0) {
+                continue;
+            }
+            int handle = entry - 1;
+            byte[] page = pages[handle >>> PAGE_BITS];
+            int pos = handle & (PAGE_SIZE - 1);
+            int len = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = page[pos++];
+                len |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            int i = hash(page, pos, len) & mask;
+            while (table[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            table[i] = entry;
+        }
+    }
+
+    private static int hash(byte[] a, int from, int len) {
+        int h = 1;
+        for (int i = from; i < from + len; i++) {
+            h = 31 * h + a[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int varintSize(int len) {
+        int size = 1;
+        while (len >= 0x80) {
+            len >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,525 @@
+/**
+ * SkipList_Mapped.java
+ *
+ * Skip list priority queue whose nodes live in a memory-mapped file, so that several
+ * processes on the same machine can insert and remove entries of one queue directly,
+ * without sockets or serialization, and the file keeps the queue across restarts.
+ * Nodes are records in the mapping and link each other by offset instead of by reference.
+ *
+ * @author jacopo
+ * @version 1.0
+ */
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Main class to test the mapped SkipListPQ implementation.
+ * Reads the same input file format as {@code SkipList_Base} and prints the same output.
+ */
+public class SkipList_Mapped {
+
+    /**
+     * A key-value pair copied out of the mapping by {@code min} and {@code removeMin}.
+     */
+    static class MyEntry implements PriorityQueueEngine.Entry {
+        private final int key;       // Key of the Entry
+        private final String value;  // Value of the Entry
+
+        /**
+         * @param key   The integer key for this entry.
+         * @param value The string value associated with the key.
+         */
+        public MyEntry(int key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public Integer getKey() {
+            return key;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        // @return A string in the format "key value"
+        public String toString() {
+            return key + " " + value;
+        }
+    }
+
+    /**
+     * Skip List priority queue stored in a memory-mapped file.
+     *
+     * The file starts with a header holding the lock word, the counters, the head link of every level
+     * and the free lists; the nodes follow. A node at offset {@code o} is the record
+     * {@code key, h, valueLength, next[0..h-1], value bytes}, padded to 8 bytes, where {@code next[l]}
+     * is the offset of the next node on level l, or 0 at the end of the level.
+     * The whole tower of a node is one record, so a level is followed by reading {@code next[l]}.
+     *
+     * Every operation holds the lock word of the header, taken with a compare-and-set on the mapping,
+     * so threads of any process mapping the file exclude each other. The lock word records the process
+     * id of its holder: if that process has died, the lock is taken over and the size is recounted.
+     * Towers are linked bottom-up and unlinked top-down, so a process dying in the middle of an
+     * operation leaves at worst a shorter tower, or a record that is never reused.
+     * Removed records are kept in free lists by size and reused by later inserts: records up to 1 KB
+     * in one list per size, larger ones in a single first-fit list, split when they are larger than needed.
+     * The mapping does not grow, so inserts fail once neither the free lists nor the unused tail can hold them.
+     *
+     * Offsets are ints, so a file maps at most 2 GB. The byte order is the native one,
+     * as the file is shared by processes of the same machine.
+     */
+    static class SkipListPQ implements PriorityQueueEngine, AutoCloseable {
+
+        private static final int MAGIC = 0x534B504C;            // "SKPL"
+        private static final int FORMAT = 1;                    // Layout version of the file
+        private static final int MAX_LEVEL = 32;                // Maximum tower height
+        private static final int FREE_CLASSES = 128;            // Free lists for records up to 1 KB, by 8 bytes
+
+        // Header layout, in bytes
+        private static final int MAGIC_AT = 0;
+        private static final int FORMAT_AT = 4;
+        private static final int LOCK_AT = 8;                   // long: holder's pid << 32 | thread id, 0 if free
+        private static final int ALPHA_AT = 16;                 // double
+        private static final int SIZE_AT = 24;                  // int: number of entries
+        private static final int LEVELS_AT = 28;                // int: highest tower height ever inserted
+        private static final int TOP_AT = 32;                   // int: first never allocated byte
+        private static final int NUM_EXE_AT = 40;               // int: execution count
+        private static final int NUM_IT_TOT_AT = 48;            // long: total number of iterations
+        private static final int LARGE_FREE_AT = 56;            // int: free records over 1 KB, in a first-fit list
+        private static final int HEADS_AT = 64;                 // int[MAX_LEVEL]: first node of each level
+        private static final int FREE_AT = HEADS_AT + 4 * MAX_LEVEL;   // int[FREE_CLASSES]: free records by size class
+        private static final int DATA_AT = FREE_AT + 4 * FREE_CLASSES;
+
+        // Node layout, relative to its offset
+        private static final int KEY = 0;
+        private static final int HEIGHT = 4;
+        private static final int LENGTH = 8;
+        private static final int NEXT = 12;
+
+        private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+        private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+        private static final int SPINS = 256;                   // Busy spins before parking while the lock is held
+        private static final int PARKS_PER_CHECK = 1024;        // Parks between checks that the holder is alive
+
+        private final FileChannel channel;
+        private final MappedByteBuffer buf;
+        private final double alpha;    // Alpha parameter, as stored in the file
+        private final Random rand;     // Random number generator
+        private final int[] preds = new int[MAX_LEVEL];  // Predecessors on the search path, used under the lock
+        private File temporary;        // File deleted on close, or null
+
+        /**
+         * Maps a file, creating the queue in it if it is new or empty,
+         * or reopening the queue it already holds.
+         *
+         * @param path  The file to map.
+         * @param alpha The probability factor for a new queue, as in {@code SkipList_Base};
+         * an existing queue keeps the alpha it was created with.
+         * @param bytes The size of the mapping for a new file; an existing file is mapped whole.
+         * @throws IOException If the file cannot be mapped or holds something else than a queue.
+         * @throws IllegalArgumentException If the size does not fit in int offsets.
+         */
+        public SkipListPQ(String path, double alpha, long bytes) throws IOException {
+            this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                long length = channel.size() > 0 ? channel.size() : bytes;
+                if (length < DATA_AT + 64 || length > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Mapping size out of range: " + length);
+                }
+                this.buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+                buf.order(ByteOrder.nativeOrder());
+                // Only creation needs the file lock; the operations use the lock word
+                FileLock lock = channel.lock();
+                try {
+                    if (buf.getInt(MAGIC_AT) == 0) {
+                        buf.putDouble(ALPHA_AT, alpha);
+                        buf.putInt(LEVELS_AT, 1);
+                        buf.putInt(TOP_AT, DATA_AT);
+                        buf.putInt(FORMAT_AT, FORMAT);
+                        buf.putInt(MAGIC_AT, MAGIC);
+                    } else if (buf.getInt(MAGIC_AT) != MAGIC || buf.getInt(FORMAT_AT) != FORMAT) {
+                        throw new IOException("Not a skip list file: " + path);
+                    }
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            this.alpha = buf.getDouble(ALPHA_AT);
+            this.rand = new Random();
+        }
+
+        /**
+         * Creates a queue in a temporary file, deleted on close or when the JVM exits.
+         *
+         * @param alpha The probability factor, as in {@code SkipList_Base}.
+         * @param bytes The size of the mapping.
+         * @return The new queue.
+         * @throws IOException If the file cannot be created or mapped.
+         */
+        public static SkipListPQ temporary(double alpha, long bytes) throws IOException {
+            File file = File.createTempFile("skiplist", ".map");
+            file.deleteOnExit();
+            SkipListPQ pq = new SkipListPQ(file.getPath(), alpha, bytes);
+            pq.temporary = file;
+            return pq;
+        }
+
+        // @return The alpha parameter stored in the file.
+        public double alpha() {
+            return alpha;
+        }
+
+        public int size() {
+            return (int) INT.getVolatile(buf, SIZE_AT);
+        }
+
+        public int getInsertCount() {
+            return (int) INT.getVolatile(buf, NUM_EXE_AT);
+        }
+
+        public double getAverageTraversedNodes() {
+            lock();
+            try {
+                int numExe = buf.getInt(NUM_EXE_AT);
+                return numExe == 0 ? 0 : (double) buf.getLong(NUM_IT_TOT_AT) / numExe;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * @return A copy of the entry with the minimum key, or {@code null} if the list is empty.
+         */
+        public PriorityQueueEngine.Entry min() {
+            lock();
+            try {
+                int first = buf.getInt(HEADS_AT);
+                return first == 0 ? null : entry(first);
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Inserts a new key-value pair.
+         * 1. Searches from the highest level, recording the last node before the key on every level;
+         * the traversed nodes are counted as in {@code SkipList_Compact}.
+         * 2. Allocates the record of the whole tower and writes it.
+         * 3. Links the tower bottom-up after the recorded predecessors.
+         *
+         * @param key   The key of the element to insert.
+         * @param value The value associated with the key.
+         * @return The number of nodes traversed during the search phase of this insertion.
+         * @throws IllegalStateException If the mapping has no room for the record.
+         */
+        public int insert(int key, String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            lock();
+            try {
+                int levels = buf.getInt(LEVELS_AT);
+                int p = 0;
+                int numIt = 1;
+                for (int l = levels - 1; l >= 0; l--) {
+                    numIt++;
+                    int q;
+                    while ((q = next(p, l)) != 0 && key >= buf.getInt(q + KEY)) {
+                        p = q;
+                        numIt++;
+                    }
+                    preds[l] = p;
+                }
+
+                int h = Math.min(generateEll(alpha, key), MAX_LEVEL - 1) + 1;
+                for (int l = levels; l < h; l++) {
+                    preds[l] = 0;
+                }
+
+                int node = allocate(recordSize(h, utf8.length));
+                buf.putInt(node + KEY, key);
+                buf.putInt(node + HEIGHT, h);
+                buf.putInt(node + LENGTH, utf8.length);
+                buf.put(node + NEXT + 4 * h, utf8);
+                for (int l = 0; l < h; l++) {
+                    buf.putInt(node + NEXT + 4 * l, next(preds[l], l));
+                    setNext(preds[l], l, node);
+                }
+
+                if (h > levels) {
+                    buf.putInt(LEVELS_AT, h);
+                }
+                buf.putInt(SIZE_AT, buf.getInt(SIZE_AT) + 1);
+                buf.putInt(NUM_EXE_AT, buf.getInt(NUM_EXE_AT) + 1);
+                buf.putLong(NUM_IT_TOT_AT, buf.getLong(NUM_IT_TOT_AT) + numIt);
+                return numIt;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Removes the entry with the minimum key.
+         * The minimum is the first node on every level of its tower: its levels are
+         * unlinked from the top down by advancing the head links, and its record is freed.
+         *
+         * @return A copy of the removed entry, or {@code null} if the list was empty.
+         */
+        public PriorityQueueEngine.Entry removeMin() {
+            lock();
+            try {
+                int node = buf.getInt(HEADS_AT);
+                if (node == 0) {
+                    return null;
+                }
+                PriorityQueueEngine.Entry minEntry = entry(node);
+                int h = buf.getInt(node + HEIGHT);
+                for (int l = h - 1; l >= 0; l--) {
+                    if (buf.getInt(HEADS_AT + 4 * l) == node) {
+                        buf.putInt(HEADS_AT + 4 * l, buf.getInt(node + NEXT + 4 * l));
+                    }
+                }
+                buf.putInt(SIZE_AT, buf.getInt(SIZE_AT) - 1);
+                free(node, recordSize(h, buf.getInt(node + LENGTH)));
+                return minEntry;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Prints the elements at the base level in ascending order of keys,
+         * with the height of each node's tower, in the format of {@code SkipList_Base}.
+         */
+        public void print() {
+            StringBuilder sb = new StringBuilder();
+            lock();
+            try {
+                for (int e = buf.getInt(HEADS_AT); e != 0; e = buf.getInt(e + NEXT)) {
+                    if (sb.length() > 0) {
+                        sb.append(", ");
+                    }
+                    sb.append(entry(e)).append(' ').append(buf.getInt(e + HEIGHT));
+                }
+            } finally {
+                unlock();
+            }
+            System.out.println(sb.length() > 0 ? sb : "Empty list, try again");
+        }
+
+        /**
+         * Writes the mapped pages back to the file, so that the queue survives a crash of the machine.
+         * A process that exits normally does not need it: the pages are shared with the file.
+         */
+        public void force() {
+            buf.force();
+        }
+
+        /**
+         * Forces the mapping and closes the file, deleting it if it is temporary.
+         * The mapping itself is released by the garbage collector, and the queue must not be used after closing.
+         *
+         * @throws IOException If the file cannot be closed.
+         */
+        public void close() throws IOException {
+            if (temporary == null) {
+                force();
+            }
+            channel.close();
+            if (temporary != null && !temporary.delete() && temporary.exists()) {
+                throw new IOException("Cannot delete " + temporary);
+            }
+        }
+
+        /**
+         * Generates a height (level) for a new node, as in {@code SkipList_Base}.
+         *
+         * @param alpha_ The alpha parameter of the queue.
+         * @param key    The key of the node being inserted (used for deterministic strategy).
+         * @return The generated height (0-based index, e.g., 0 means only base level).
+         */
+        private int generateEll(double alpha_, int key) {
+            int level = 0;
+            if (alpha_ >= 0. && alpha_ < 1) {
+                while (rand.nextDouble() < alpha_) {
+                    level += 1;
+                }
+            } else {
+                while (key != 0 && key % 2 == 0) {
+                    key = key / 2;
+                    level += 1;
+                }
+            }
+            return level;
+        }
+
+        // Offset of the next node on level l after node p, where p == 0 is the head.
+        private int next(int p, int l) {
+            return buf.getInt(p == 0 ? HEADS_AT + 4 * l : p + NEXT + 4 * l);
+        }
+
+        private void setNext(int p, int l, int node) {
+            buf.putInt(p == 0 ? HEADS_AT + 4 * l : p + NEXT + 4 * l, node);
+        }
+
+        // Copies the key and the value of a node out of the mapping.
+        private MyEntry entry(int node) {
+            int h = buf.getInt(node + HEIGHT);
+            byte[] utf8 = new byte[buf.getInt(node + LENGTH)];
+            buf.get(node + NEXT + 4 * h, utf8);
+            return new MyEntry(buf.getInt(node + KEY), new String(utf8, StandardCharsets.UTF_8));
+        }
+
+        private static int recordSize(int h, int length) {
+            return (NEXT + 4 * h + length + 7) & ~7;
+        }
+
+        /**
+         * Takes a free record of the same size class or, for a record over 1 KB, the first large free record
+         * big enough, returning its unused end to the free lists; otherwise allocates a new record at the top.
+         */
+        private int allocate(int size) {
+            int c = size >>> 3;
+            if (c < FREE_CLASSES) {
+                int node = buf.getInt(FREE_AT + 4 * c);
+                if (node != 0) {
+                    buf.putInt(FREE_AT + 4 * c, buf.getInt(node + NEXT));
+                    return node;
+                }
+            } else {
+                int link = LARGE_FREE_AT;   // Offset of the link to node
+                for (int node = buf.getInt(link); node != 0; node = buf.getInt(link)) {
+                    int available = buf.getInt(node + KEY);
+                    if (available >= size) {
+                        buf.putInt(link, buf.getInt(node + NEXT));
+                        // An end too small for a record stays with this one and is lost when it is freed
+                        if (available - size >= recordSize(1, 0)) {
+                            free(node + size, available - size);
+                        }
+                        return node;
+                    }
+                    link = node + NEXT;
+                }
+            }
+            int top = buf.getInt(TOP_AT);
+            if (top > buf.capacity() - size) {
+                throw new IllegalStateException("Mapped skip list is full");
+            }
+            buf.putInt(TOP_AT, top + size);
+            return top;
+        }
+
+        // Pushes a record on the free list of its size class; a record over 1 KB keeps its size in the key field.
+        private void free(int node, int size) {
+            int c = size >>> 3;
+            if (c < FREE_CLASSES) {
+                buf.putInt(node + NEXT, buf.getInt(FREE_AT + 4 * c));
+                buf.putInt(FREE_AT + 4 * c, node);
+            } else {
+                buf.putInt(node + KEY, size);
+                buf.putInt(node + NEXT, buf.getInt(LARGE_FREE_AT));
+                buf.putInt(LARGE_FREE_AT, node);
+            }
+        }
+
+        /**
+         * Takes the lock word: spins briefly, then parks, and periodically checks
+         * whether the holder's process is still alive to take over a lock left by a crash.
+         */
+        private void lock() {
+            long me = ProcessHandle.current().pid() << 32 | (Thread.currentThread().getId() & 0xFFFFFFFFL);
+            int spins = 0;
+            int parks = 0;
+            while (!LONG.compareAndSet(buf, LOCK_AT, 0L, me)) {
+                if (spins < SPINS) {
+                    spins++;
+                    Thread.onSpinWait();
+                    continue;
+                }
+                LockSupport.parkNanos(10_000);
+                if (++parks % PARKS_PER_CHECK == 0) {
+                    long holder = (long) LONG.getVolatile(buf, LOCK_AT);
+                    if (holder != 0 && !ProcessHandle.of(holder >>> 32).map(ProcessHandle::isAlive).orElse(false)
+                            && LONG.compareAndSet(buf, LOCK_AT, holder, me)) {
+                        recover();
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void unlock() {
+            LONG.setVolatile(buf, LOCK_AT, 0L);
+        }
+
+        // Recounts the size after a crash in the middle of an operation.
+        private void recover() {
+            int size = 0;
+            for (int e = buf.getInt(HEADS_AT); e != 0; e = buf.getInt(e + NEXT)) {
+                size++;
+            }
+            buf.putInt(SIZE_AT, size);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 1 && args.length != 2) {
+            System.out.println("Usage: java TestProgram <file_path> [map_file]");
+            return;
+        }
+
+        try (BufferedReader br = new BufferedReader(new FileReader(args[0]))) {
+            String[] firstLine = br.readLine().split(" ");
+            int N = Integer.parseInt(firstLine[0]);
+            double alpha = Double.parseDouble(firstLine[1]);
+            System.out.println(N + " " + alpha);
+
+            try (SkipListPQ skipList = args.length == 2
+                    ? new SkipListPQ(args[1], alpha, 1L << 28)
+                    : SkipListPQ.temporary(alpha, 1L << 28)) {
+
+                for (int i = 0; i < N; i++) {
+                    String[] line = br.readLine().split(" ");
+                    int operation = Integer.parseInt(line[0]);
+
+                    switch (operation) {
+                        case 0:
+                            PriorityQueueEngine.Entry minEntry = skipList.min();
+                            if (minEntry != null) System.out.println(minEntry);
+                            break;
+                        case 1:
+                            skipList.removeMin();
+                            break;
+                        case 2:
+                            skipList.insert(Integer.parseInt(line[1]), line[2]);
+                            break;
+                        case 3:
+                            skipList.print();
+                            break;
+                        default:
+                            System.out.println("Invalid operation code");
+                            return;
+                    }
+                }
+                System.out.println(alpha + " " + skipList.size() + " " + skipList.getInsertCount() + " " + skipList.getAverageTraversedNodes());
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,390 @@
+/**
+ * SkipList_Server.java
+ *
+ * Long-running local server sharing one skip list priority queue between many clients,
+ * over loopback TCP or a Unix domain socket. Clients send the operation lines of the
+ * input files and receive one response line per request, in request order:
+ * - "0"           -> "key value" of the minimum, or "EMPTY"
+ * - "1"           -> "key value" of the removed minimum, or "EMPTY"
+ * - "2 key value" -> "OK"
+ * - "3"           -> the line printed by the engine's print
+ * - anything else, or a request the engine fails -> "ERROR message"
+ * Requests may be pipelined: a client can send many lines before reading the responses.
+ *
+ * @author jacopo
+ * @version 1.0
+ */
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * A single thread runs a selector over all the connections. Each round reads what every
+ * ready client has sent, collects the complete request lines of all of them in one batch
+ * of operation records, executes the batch on the engine in arrival order, and queues
+ * the responses, which are written as the sockets accept them.
+ * The engine is only touched by this thread, so the operations need no locking,
+ * and a batch amortizes the selector round over all the requests that arrived meanwhile.
+ */
+public class SkipList_Server {
+
+    private static final int LINE_BUFFER = 1 << 16;           // Longest request line, in bytes
+    private static final int MAX_PENDING_OUTPUT = 1 << 20;    // Unsent bytes above which a client is not read
+    private static final byte[] NEWLINE = { '\n' };
+
+    /**
+     * A connected client: its partial request line and its unsent responses.
+     */
+    private static final class Client {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ByteBuffer in = ByteBuffer.allocate(LINE_BUFFER);
+        byte[] out = new byte[4096];
+        int outStart;              // First unsent byte of out
+        int outEnd;                // End of the unsent bytes of out
+        boolean closing;           // Input ended: close once the responses are sent
+
+        Client(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        int pending() {
+            return outEnd - outStart;
+        }
+
+        void append(byte[] bytes) {
+            if (outEnd + bytes.length + 1 > out.length) {
+                System.arraycopy(out, outStart, out, 0, outEnd - outStart);
+                outEnd -= outStart;
+                outStart = 0;
+                if (outEnd + bytes.length + 1 > out.length) {
+                    out = Arrays.copyOf(out, Math.max(out.length * 2, outEnd + bytes.length + 1));
+                }
+            }
+            System.arraycopy(bytes, 0, out, outEnd, bytes.length);
+            outEnd += bytes.length;
+            out[outEnd++] = NEWLINE[0];
+        }
+    }
+
+    private final PriorityQueueEngine pq;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+
+    // Batch of requests of one round, in arrival order
+    private int[] ops = new int[1024];
+    private int[] keys = new int[1024];
+    private String[] values = new String[1024];
+    private String[] errors = new String[1024];    // Parse error of a request, or null
+    private Client[] from = new Client[1024];
+    private int count;
+    private final Set<Client> touched = new LinkedHashSet<>();   // Clients with new responses or new input state
+
+    private final ByteArrayOutputStream printed = new ByteArrayOutputStream();
+    private final PrintStream printStream = new PrintStream(printed, true);
+
+    /**
+     * Opens the server socket.
+     * @param pq      the engine shared by all clients
+     * @param address a loopback socket address, or a Unix domain socket address
+     * @throws IOException if the address cannot be bound
+     */
+    public SkipList_Server(PriorityQueueEngine pq, SocketAddress address) throws IOException {
+        this.pq = pq;
+        this.selector = Selector.open();
+        this.server = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Serves the clients until the thread is interrupted.
+     * @throws IOException if the selector fails
+     */
+    public void run() throws IOException {
+        while (!Thread.currentThread().isInterrupted()) {
+            selector.select();
+            for (SelectionKey key : selector.selectedKeys()) {
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    accept();
+                    continue;
+                }
+                Client client = (Client) key.attachment();
+                if (key.isReadable()) {
+                    read(client);
+                }
+                if (key.isValid() && key.isWritable()) {
+                    touched.add(client);
+                }
+            }
+            selector.selectedKeys().clear();
+            executeBatch();
+            for (Client client : touched) {
+                flush(client);
+            }
+            touched.clear();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Client(channel, key));
+        }
+    }
+
+    // Reads what the client sent and adds its complete lines to the batch.
+    private void read(Client client) {
+        int n;
+        try {
+            n = client.channel.read(client.in);
+        } catch (IOException e) {
+            close(client);
+            return;
+        }
+        if (n < 0) {
+            client.closing = true;
+            client.key.interestOps(client.key.interestOps() & ~SelectionKey.OP_READ);
+        }
+        ByteBuffer in = client.in;
+        byte[] bytes = in.array();
+        int start = 0;
+        for (int i = 0; i < in.position(); i++) {
+            if (bytes[i] == '\n') {
+                int end = i > start && bytes[i - 1] == '\r' ? i - 1 : i;
+                add(client, new String(bytes, start, end - start, StandardCharsets.UTF_8));
+                start = i + 1;
+            }
+        }
+        if (client.closing && start < in.position()) {
+            // Last line without a newline
+            add(client, new String(bytes, start, in.position() - start, StandardCharsets.UTF_8));
+            start = in.position();
+        }
+        in.limit(in.position());
+        in.position(start);
+        in.compact();
+        if (!in.hasRemaining()) {
+            add(client, null);
+            client.closing = true;
+            client.key.interestOps(client.key.interestOps() & ~SelectionKey.OP_READ);
+        }
+        touched.add(client);
+    }
+
+    // Parses a request line into the next record of the batch; a null line is a line too long.
+    private void add(Client client, String line) {
+        if (count == ops.length) {
+            int capacity = count * 2;
+            ops = Arrays.copyOf(ops, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+            errors = Arrays.copyOf(errors, capacity);
+            from = Arrays.copyOf(from, capacity);
+        }
+        int i = count++;
+        from[i] = client;
+        if (line == null) {
+            errors[i] = "Line longer than " + LINE_BUFFER + " bytes";
+            return;
+        }
+        try {
+            int sp1 = line.indexOf(' ');
+            ops[i] = Integer.parseInt(line, 0, sp1 < 0 ? line.length() : sp1, 10);
+            if (ops[i] == 2) {
+                int sp2 = sp1 < 0 ? -1 : line.indexOf(' ', sp1 + 1);
+                if (sp2 < 0 || sp2 + 1 == line.length()) {
+                    errors[i] = "Usage: 2 key value";
+                    return;
+                }
+                int sp3 = line.indexOf(' ', sp2 + 1);
+                keys[i] = Integer.parseInt(line, sp1 + 1, sp2, 10);
+                values[i] = line.substring(sp2 + 1, sp3 < 0 ? line.length() : sp3);
+            }
+        } catch (NumberFormatException e) {
+            errors[i] = "Malformed request: " + line;
+        }
+    }
+
+    /**
+     * Executes the requests of the round in arrival order and queues their responses.
+     * A request failing in the engine, such as an insert into a full mapped file,
+     * is answered with an error, and the rest of the batch goes on.
+     */
+    private void executeBatch() {
+        for (int i = 0; i < count; i++) {
+            Client client = from[i];
+            String response;
+            if (errors[i] != null) {
+                response = "ERROR " + errors[i];
+            } else {
+                try {
+                    response = execute(i);
+                } catch (RuntimeException e) {
+                    response = "ERROR " + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+                }
+            }
+            if (client.channel.isOpen()) {
+                client.append(response.getBytes(StandardCharsets.UTF_8));
+            }
+            from[i] = null;
+            values[i] = null;
+            errors[i] = null;
+        }
+        count = 0;
+    }
+
+    // Runs one parsed request on the engine and returns its response.
+    private String execute(int i) {
+        switch (ops[i]) {
+            case 0:
+                return format(pq.min());
+            case 1:
+                return format(pq.removeMin());
+            case 2:
+                pq.insert(keys[i], values[i]);
+                return "OK";
+            case 3:
+                return print();
+            default:
+                return "ERROR Invalid operation code";
+        }
+    }
+
+    private static String format(PriorityQueueEngine.Entry entry) {
+        return entry == null ? "EMPTY" : entry.toString();
+    }
+
+    // Runs the engine's print, which writes to System.out, and returns its line.
+    private String print() {
+        PrintStream stdout = System.out;
+        printed.reset();
+        System.setOut(printStream);
+        try {
+            pq.print();
+        } finally {
+            System.setOut(stdout);
+        }
+        String s = printed.toString(StandardCharsets.UTF_8);
+        return s.endsWith("\n") ? s.substring(0, s.length() - 1) : s;
+    }
+
+    /**
+     * Writes the client's responses as far as the socket accepts them, waits for the socket
+     * when it is full, and stops reading the client while too many responses are unsent.
+     */
+    private void flush(Client client) {
+        if (!client.channel.isOpen()) {
+            return;
+        }
+        try {
+            if (client.pending() > 0) {
+                client.outStart += client.channel.write(ByteBuffer.wrap(client.out, client.outStart, client.pending()));
+            }
+        } catch (IOException e) {
+            close(client);
+            return;
+        }
+        if (client.pending() == 0) {
+            client.outStart = 0;
+            client.outEnd = 0;
+            if (client.closing) {
+                close(client);
+                return;
+            }
+        }
+        int interest = client.pending() > 0 ? SelectionKey.OP_WRITE : 0;
+        if (!client.closing && client.pending() < MAX_PENDING_OUTPUT) {
+            interest |= SelectionKey.OP_READ;
+        }
+        client.key.interestOps(interest);
+    }
+
+    private static void close(Client client) {
+        client.key.cancel();
+        try {
+            client.channel.close();
+        } catch (IOException e) {
+            // Already closed by the peer
+        }
+    }
+
+    public static void main(String[] args) {
+        String engine = "base";
+        double alpha = 0.5;
+        int port = 7070;
+        String unixPath = null;
+        String mapPath = null;
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--engine=")) {
+                    engine = arg.substring("--engine=".length());
+                } else if (arg.startsWith("--alpha=")) {
+                    alpha = Double.parseDouble(arg.substring("--alpha=".length()));
+                } else if (arg.startsWith("--port=")) {
+                    port = Integer.parseInt(arg.substring("--port=".length()));
+                } else if (arg.startsWith("--unix=")) {
+                    unixPath = arg.substring("--unix=".length());
+                } else if (arg.startsWith("--map=")) {
+                    mapPath = arg.substring("--map=".length());
+                } else {
+                    System.out.println("Usage: java SkipList_Server [--engine=" + String.join("|", SkipList_Engine.ENGINES)
+                            + "] [--alpha=A] [--map=FILE] [--port=PORT | --unix=PATH]");
+                    return;
+                }
+            }
+            if (mapPath != null && !engine.equals("mapped")) {
+                throw new IllegalArgumentException("--map requires --engine=mapped");
+            }
+
+            SocketAddress address;
+            if (unixPath != null) {
+                Path socket = Paths.get(unixPath);
+                address = UnixDomainSocketAddress.of(socket);
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        Files.deleteIfExists(socket);
+                    } catch (IOException e) {
+                        // Left for the next start to report
+                    }
+                }));
+            } else {
+                address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+            }
+            PriorityQueueEngine pq = mapPath != null
+                    ? new SkipList_Mapped.SkipListPQ(mapPath, alpha, SkipList_Engine.MAP_BYTES)
+                    : SkipList_Engine.create(engine, alpha);
+            SkipList_Server server = new SkipList_Server(pq, address);
+            System.out.println("Serving " + engine + " on " + address);
+            server.run();
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid argument: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Server error: " + e.getMessage());
+        }
+    }
+}
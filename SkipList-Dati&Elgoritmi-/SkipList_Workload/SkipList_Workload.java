@@ -0,0 +1,389 @@
+/**
+ * SkipList_Workload.java
+ *
+ * Generates large trace files in the same command format read by
+ * {@code SkipList_Base} and {@code SkipList_Template}:
+ * a first line "N alpha" followed by N operation lines.
+ * The trace is streamed to disk one line at a time, so traces with
+ * hundreds of millions of operations never live in memory.
+ *
+ * @author jacopo
+ * @version 1.0
+ */
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.SplittableRandom;
+
+/**
+ * Source of keys for the insert operations of a trace.
+ */
+abstract class KeyDistribution {
+
+    /**
+     * Returns the key of the next insert.
+     * @param rand random source shared by the generator
+     * @return a key in [0, Integer.MAX_VALUE - 1]
+     */
+    public abstract int nextKey(SplittableRandom rand);
+
+    /**
+     * Builds the distribution named on the command line.
+     * @param name     uniform, monotone, zipf or duplicates
+     * @param keyRange number of distinct keys that may be produced
+     * @param zipfS    skew exponent used by the zipf distribution
+     * @param distinct number of distinct keys used by the duplicates distribution
+     * @param seed     seed of the trace, from which the duplicates distribution picks its keys
+     * @return the distribution
+     */
+    public static KeyDistribution of(String name, int keyRange, double zipfS, int distinct, long seed) {
+        switch (name) {
+            case "uniform":
+                return new UniformKeys(keyRange);
+            case "monotone":
+                return new MonotoneKeys(keyRange);
+            case "zipf":
+                return new ZipfKeys(keyRange, zipfS);
+            case "duplicates":
+                return new DuplicateKeys(keyRange, distinct, seed);
+            default:
+                throw new IllegalArgumentException("Unknown key distribution: " + name);
+        }
+    }
+}
+
+/**
+ * Keys drawn uniformly from [0, keyRange).
+ */
+class UniformKeys extends KeyDistribution {
+    private final int keyRange;
+
+    public UniformKeys(int keyRange) {
+        this.keyRange = keyRange;
+    }
+
+    public int nextKey(SplittableRandom rand) {
+        return rand.nextInt(keyRange);
+    }
+}
+
+/**
+ * Strictly increasing keys, wrapping around at keyRange.
+ * Every insert lands at the end of the base level, the worst case for the search path.
+ */
+class MonotoneKeys extends KeyDistribution {
+    private final int keyRange;
+    private int next;
+
+    public MonotoneKeys(int keyRange) {
+        this.keyRange = keyRange;
+    }
+
+    public int nextKey(SplittableRandom rand) {
+        int key = next;
+        next = (next + 1 == keyRange) ? 0 : next + 1;
+        return key;
+    }
+}
+
+/**
+ * Zipf distributed keys: a few hot keys receive most of the inserts.
+ * Ranks are sampled with the rejection-inversion method of Hormann and Derflinger,
+ * which costs O(1) per key regardless of keyRange, and then scattered over
+ * [0, keyRange) so that the hot keys are not simply the smallest ones.
+ */
+class ZipfKeys extends KeyDistribution {
+    private final int keyRange;
+    private final double s;
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double threshold;
+
+    /**
+     * @param keyRange number of ranks
+     * @param s        skew exponent, must be positive
+     */
+    public ZipfKeys(int keyRange, double s) {
+        if (s <= 0) {
+            throw new IllegalArgumentException("Zipf exponent must be positive: " + s);
+        }
+        this.keyRange = keyRange;
+        this.s = s;
+        this.hIntegralX1 = hIntegral(1.5) - 1.0;
+        this.hIntegralN = hIntegral(keyRange + 0.5);
+        this.threshold = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2.0));
+    }
+
+    public int nextKey(SplittableRandom rand) {
+        while (true) {
+            double u = hIntegralN + rand.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInverse(u);
+            long k = (long) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > keyRange) {
+                k = keyRange;
+            }
+            if (k - x <= threshold || u >= hIntegral(k + 0.5) - h(k)) {
+                return scatter(k - 1);
+            }
+        }
+    }
+
+    // Maps a rank onto the key range with a multiplicative hash.
+    private int scatter(long rank) {
+        return (int) Math.floorMod(rank * 0x9E3779B97F4A7C15L, (long) keyRange);
+    }
+
+    private double h(double x) {
+        return Math.exp(-s * Math.log(x));
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return helper2((1.0 - s) * logX) * logX;
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = x * (1.0 - s);
+        if (t < -1.0) {
+            t = -1.0;
+        }
+        return Math.exp(helper1(t) * x);
+    }
+
+    // log(1 + x) / x, stable near zero
+    private static double helper1(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.log1p(x) / x;
+        }
+        return 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+    }
+
+    // (exp(x) - 1) / x, stable near zero
+    private static double helper2(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.expm1(x) / x;
+        }
+        return 1.0 + x * 0.5 * (1.0 + x * (1.0 / 3.0) * (1.0 + 0.25 * x));
+    }
+}
+
+/**
+ * Keys drawn uniformly from a small fixed set, producing long runs of equal keys.
+ */
+class DuplicateKeys extends KeyDistribution {
+    private final int[] keys;
+
+    /**
+     * @param keyRange range the distinct keys are picked from
+     * @param distinct number of distinct keys
+     * @param seed     seed of the trace; the keys are picked by a generator derived from it,
+     *                 so they change with the seed but not with the operations drawn afterwards
+     */
+    public DuplicateKeys(int keyRange, int distinct, long seed) {
+        SplittableRandom pick = new SplittableRandom(seed * 31 + distinct);
+        keys = new int[distinct];
+        for (int i = 0; i < distinct; i++) {
+            keys[i] = pick.nextInt(keyRange);
+        }
+    }
+
+    public int nextKey(SplittableRandom rand) {
+        return keys[rand.nextInt(keys.length)];
+    }
+}
+
+/**
+ * Writes a trace of insert / removeMin / min / print operations.
+ * The generator keeps track of the number of entries the trace leaves in the queue,
+ * so removeMin (1) and min (0) are never emitted on an empty queue.
+ */
+class TraceWriter {
+    private static final String[] WORDS = { "car", "bike", "dog", "woman", "man", "cat", "tree", "house" };
+
+    private final KeyDistribution keys;
+    private final SplittableRandom rand;
+    private final double insertWeight;
+    private final double removeWeight;
+    private final double totalWeight;
+    private final long printEvery;
+    private final boolean wordValues;
+    private long size;
+    private long inserts;
+
+    /**
+     * @param keys       source of the inserted keys
+     * @param seed       seed of the random source, so a trace can be regenerated
+     * @param insert     weight of insert (2) operations
+     * @param remove     weight of removeMin (1) operations
+     * @param min        weight of min (0) operations
+     * @param printEvery emit a print (3) every printEvery operations, 0 for never
+     * @param wordValues reuse a small vocabulary of values instead of "testN"
+     */
+    public TraceWriter(KeyDistribution keys, long seed, double insert, double remove, double min,
+                       long printEvery, boolean wordValues) {
+        if (insert <= 0 || remove < 0 || min < 0) {
+            throw new IllegalArgumentException("Operation mix needs a positive insert weight");
+        }
+        this.keys = keys;
+        this.rand = new SplittableRandom(seed);
+        this.insertWeight = insert;
+        this.removeWeight = remove;
+        this.totalWeight = insert + remove + min;
+        this.printEvery = printEvery;
+        this.wordValues = wordValues;
+    }
+
+    /**
+     * Streams the whole trace to the given writer.
+     * @param out   destination
+     * @param n     number of operations
+     * @param alpha alpha written in the header line
+     * @throws IOException if writing fails
+     */
+    public void write(Writer out, int n, String alpha) throws IOException {
+        out.write(n + " " + alpha + "\n");
+        for (long i = 1; i <= n; i++) {
+            if (printEvery > 0 && i % printEvery == 0) {
+                out.write("3\n");
+                continue;
+            }
+            double op = rand.nextDouble() * totalWeight;
+            if (size == 0 || op < insertWeight) {
+                int key = keys.nextKey(rand);
+                out.write("2 ");
+                out.write(Integer.toString(key));
+                out.write(' ');
+                if (wordValues) {
+                    out.write(WORDS[rand.nextInt(WORDS.length)]);
+                } else {
+                    out.write("test");
+                    out.write(Long.toString(inserts));
+                }
+                out.write('\n');
+                inserts++;
+                size++;
+            } else if (op < insertWeight + removeWeight) {
+                out.write("1\n");
+                size--;
+            } else {
+                out.write("0\n");
+            }
+        }
+    }
+
+    /** @return number of entries left in the queue at the end of the trace */
+    public long getSize() {
+        return size;
+    }
+
+    /** @return number of insert operations written */
+    public long getInserts() {
+        return inserts;
+    }
+}
+
+/**
+ * Command line entry point.
+ * Usage: java SkipList_Workload &lt;output_file&gt; &lt;N&gt; &lt;alpha&gt; [options]
+ * Options:
+ * - --dist=uniform|monotone|zipf|duplicates  key distribution (default uniform)
+ * - --keys=K         keys are taken from [0, K) (default 1000000)
+ * - --zipf=S         zipf skew exponent (default 1.0)
+ * - --distinct=D     distinct keys for the duplicates distribution (default 16)
+ * - --mix=I:R:M      relative weights of insert, removeMin and min (default 1:0:0)
+ * - --print-every=P  emit a print every P operations (default 0, never)
+ * - --values=seq|words  "testN" values or a small repeated vocabulary (default seq)
+ * - --seed=S         random seed (default 42)
+ */
+public class SkipList_Workload {
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: java SkipList_Workload <output_file> <N> <alpha> [--dist=uniform|monotone|zipf|duplicates]"
+                    + " [--keys=K] [--zipf=S] [--distinct=D] [--mix=I:R:M] [--print-every=P] [--values=seq|words] [--seed=S]");
+            return;
+        }
+
+        String dist = "uniform";
+        int keyRange = 1000000;
+        double zipfS = 1.0;
+        int distinct = 16;
+        double[] mix = { 1, 0, 0 };
+        long printEvery = 0;
+        boolean wordValues = false;
+        long seed = 42;
+
+        try {
+            long n = Long.parseLong(args[1]);
+            if (n < 0 || n > Integer.MAX_VALUE) {
+                System.out.println("N must be between 0 and " + Integer.MAX_VALUE);
+                return;
+            }
+            String alpha = Double.toString(Double.parseDouble(args[2]));
+
+            for (int i = 3; i < args.length; i++) {
+                String[] option = args[i].split("=", 2);
+                if (option.length != 2) {
+                    System.out.println("Invalid option: " + args[i]);
+                    return;
+                }
+                switch (option[0]) {
+                    case "--dist":
+                        dist = option[1];
+                        break;
+                    case "--keys":
+                        keyRange = Integer.parseInt(option[1]);
+                        break;
+                    case "--zipf":
+                        zipfS = Double.parseDouble(option[1]);
+                        break;
+                    case "--distinct":
+                        distinct = Integer.parseInt(option[1]);
+                        break;
+                    case "--mix":
+                        String[] weights = option[1].split(":");
+                        for (int j = 0; j < 3; j++) {
+                            mix[j] = j < weights.length ? Double.parseDouble(weights[j]) : 0;
+                        }
+                        break;
+                    case "--print-every":
+                        printEvery = Long.parseLong(option[1]);
+                        break;
+                    case "--values":
+                        if (!option[1].equals("seq") && !option[1].equals("words")) {
+                            System.out.println("Invalid option: " + args[i]);
+                            return;
+                        }
+                        wordValues = option[1].equals("words");
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(option[1]);
+                        break;
+                    default:
+                        System.out.println("Invalid option: " + args[i]);
+                        return;
+                }
+            }
+            if (keyRange < 1 || keyRange == Integer.MAX_VALUE || distinct < 1) {
+                System.out.println("--keys must be between 1 and " + (Integer.MAX_VALUE - 1) + ", --distinct at least 1");
+                return;
+            }
+
+            TraceWriter trace = new TraceWriter(KeyDistribution.of(dist, keyRange, zipfS, distinct, seed),
+                    seed, mix[0], mix[1], mix[2], printEvery, wordValues);
+            long start = System.nanoTime();
+            try (BufferedWriter out = new BufferedWriter(new FileWriter(args[0]), 1 << 16)) {
+                trace.write(out, (int) n, alpha);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.println(n + " operations, " + trace.getInserts() + " inserts, "
+                    + trace.getSize() + " entries left, " + seconds + " s");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid argument: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Error writing file: " + e.getMessage());
+        }
+    }
+}